@@ -3,5 +3,5 @@ package com.harmony.gestureharmonytoolui;
 public class AppPaths {
     public static final String SESSIONS="C:\\College\\Projects\\GestureHarmonyTool\\sessions";
     public static final String DOCS="C:\\College\\Projects\\GestureHarmonyTool\\docs";
-    public static final String ENGINE="C:\\College\\Projects\\GestureHarmonyTool\\engine-py";
+    public static final String ENGINE=System.getProperty("harmony.engine", "C:\\College\\Projects\\GestureHarmonyTool\\engine-py");
 }
@@ -0,0 +1,67 @@
+package com.harmony.gestureharmonytoolui;
+
+import org.opencv.core.Mat;
+import org.opencv.videoio.VideoCapture;
+import org.opencv.videoio.Videoio;
+
+public class CameraFrameSource implements FrameSource {
+
+    private final int cameraIndex;
+    private volatile VideoCapture videoCapture;
+    private volatile long lastFrameNanos;
+
+    public CameraFrameSource(int cameraIndex) {
+        this.cameraIndex = cameraIndex;
+    }
+
+    public int getCameraIndex() {
+        return cameraIndex;
+    }
+
+    @Override
+    public boolean open() {
+        // The index comes from ffmpeg's dshow device list; OpenCV's default MSMF backend may enumerate differently.
+        VideoCapture capture = new VideoCapture(cameraIndex, Videoio.CAP_DSHOW);
+        if (!capture.isOpened()) {
+            capture.release();
+            return false;
+        }
+        videoCapture = capture;
+        return true;
+    }
+
+    @Override
+    public boolean isOpened() {
+        VideoCapture capture = videoCapture;
+        return capture != null && capture.isOpened();
+    }
+
+    @Override
+    public boolean read(Mat frame) {
+        VideoCapture capture = videoCapture;
+        if (capture == null || !capture.read(frame)) {
+            return false;
+        }
+        lastFrameNanos = System.nanoTime();
+        return true;
+    }
+
+    @Override
+    public long lastFrameNanos() {
+        return lastFrameNanos;
+    }
+
+    @Override
+    public long droppedFrames() {
+        return 0;
+    }
+
+    @Override
+    public void release() {
+        VideoCapture capture = videoCapture;
+        if (capture != null) {
+            capture.release();
+        }
+        videoCapture = null;
+    }
+}
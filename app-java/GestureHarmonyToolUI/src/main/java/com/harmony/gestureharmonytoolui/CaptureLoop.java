@@ -0,0 +1,120 @@
+package com.harmony.gestureharmonytoolui;
+
+import org.opencv.core.Mat;
+import org.opencv.imgproc.Imgproc;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+public class CaptureLoop {
+
+    private static final long MIN_READ_BACKOFF_NANOS = 1_000_000L;
+    private static final long MAX_READ_BACKOFF_NANOS = 100_000_000L;
+
+    private final FrameSource source;
+    private final Consumer<BufferedImage> frameSink;
+    private final FramePool framePool;
+    private final FrameStats stats = new FrameStats();
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private Thread captureThread;
+
+    public CaptureLoop(FrameSource source, Consumer<BufferedImage> frameSink) {
+        this(source, frameSink, new FramePool(3));
+    }
+
+    public CaptureLoop(FrameSource source, Consumer<BufferedImage> frameSink, FramePool framePool) {
+        this.source = source;
+        this.frameSink = frameSink;
+        this.framePool = framePool;
+    }
+
+    public boolean start(String threadName) {
+        if (!source.open()) {
+            source.release();
+            return false;
+        }
+
+        running.set(true);
+        captureThread = new Thread(this::runLoop, threadName);
+        captureThread.setDaemon(true);
+        captureThread.start();
+        return true;
+    }
+
+    private void runLoop() {
+        Mat frame = new Mat();
+        Mat bgrFrame = new Mat();
+        BufferedImage latest = null;
+        BufferedImage previous = null;
+        long readBackoffNanos = 0;
+
+        try {
+            while (running.get() && source.isOpened()) {
+                if (!source.read(frame) || frame.empty()) {
+                    // A camera that keeps failing would otherwise spin a core per unit.
+                    readBackoffNanos = Math.min(MAX_READ_BACKOFF_NANOS,
+                            Math.max(MIN_READ_BACKOFF_NANOS, readBackoffNanos * 2));
+                    LockSupport.parkNanos(readBackoffNanos);
+                    continue;
+                }
+                readBackoffNanos = 0;
+
+                if (frame.channels() == 1) {
+                    Imgproc.cvtColor(frame, bgrFrame, Imgproc.COLOR_GRAY2BGR);
+                } else if (frame.channels() == 4) {
+                    Imgproc.cvtColor(frame, bgrFrame, Imgproc.COLOR_BGRA2BGR);
+                } else {
+                    frame.copyTo(bgrFrame);
+                }
+
+                BufferedImage image = framePool.acquire(bgrFrame.width(), bgrFrame.height());
+                byte[] targetPixels = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+                bgrFrame.get(0, 0, targetPixels);
+
+                frameSink.accept(image);
+                stats.recordFrame(System.nanoTime() - source.lastFrameNanos());
+
+                // The sink may still be painting the frame before last, so only recycle the one before that.
+                framePool.release(previous);
+                previous = latest;
+                latest = image;
+            }
+        } finally {
+            // Lets the health monitor report FAILED when the source dies under us.
+            running.set(false);
+            frame.release();
+            bgrFrame.release();
+        }
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    public FrameStats getStats() {
+        return stats;
+    }
+
+    public long getDroppedFrames() {
+        return source.droppedFrames();
+    }
+
+    public void stop() {
+        running.set(false);
+
+        Thread localCaptureThread = captureThread;
+        if (localCaptureThread != null && localCaptureThread.isAlive()) {
+            try {
+                localCaptureThread.join(300);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        captureThread = null;
+
+        source.release();
+    }
+}
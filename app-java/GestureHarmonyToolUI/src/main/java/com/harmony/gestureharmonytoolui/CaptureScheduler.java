@@ -0,0 +1,123 @@
+package com.harmony.gestureharmonytoolui;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * Owns every CaptureUnit in the process and the resources they share: the preview frame pool,
+ * the number of concurrent ffmpeg encoders, and the post-processing workers.
+ *
+ * Budgets default to half the cores for encoders and two pipelines, overridable with
+ * -Dharmony.maxEncoders and -Dharmony.postProcessWorkers. The default encoder budget grows so every
+ * performer added can record; an explicit -Dharmony.maxEncoders caps how many performers can be added.
+ */
+public class CaptureScheduler {
+
+    private static final long MONITOR_INTERVAL_MS = 1_000;
+
+    private final List<CaptureUnit> units = new CopyOnWriteArrayList<>();
+    private final FramePool framePool = new FramePool(16);
+    private final Semaphore encoderBudget;
+    private final boolean encoderLimitFixed;
+    private int encoderLimit;
+    private final ExecutorService postProcessing;
+    private final ScheduledExecutorService monitor;
+
+    public CaptureScheduler() {
+        this(Integer.getInteger("harmony.maxEncoders", 0), Integer.getInteger("harmony.postProcessWorkers", 2));
+    }
+
+    // maxEncoders <= 0 picks the growing default budget.
+    public CaptureScheduler(int maxEncoders, int postProcessWorkers) {
+        encoderLimitFixed = maxEncoders > 0;
+        encoderLimit = encoderLimitFixed ? maxEncoders : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        encoderBudget = new Semaphore(encoderLimit);
+
+        AtomicInteger pipelineIds = new AtomicInteger();
+        postProcessing = Executors.newFixedThreadPool(Math.max(1, postProcessWorkers), r -> {
+            Thread thread = new Thread(r, "post-process-pipeline-" + pipelineIds.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        monitor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "capture-health-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        monitor.scheduleAtFixedRate(() -> {
+            long now = System.currentTimeMillis();
+            for (CaptureUnit unit : units) {
+                unit.updateHealth(now, MONITOR_INTERVAL_MS / 1000.0);
+            }
+        }, MONITOR_INTERVAL_MS, MONITOR_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized boolean canAddUnit() {
+        return !encoderLimitFixed || units.size() < encoderLimit;
+    }
+
+    public synchronized int getEncoderLimit() {
+        return encoderLimit;
+    }
+
+    public synchronized CaptureUnit addUnit(String name, FrameSource source, String videoAlt, String audioAlt) {
+        if (units.size() >= encoderLimit) {
+            if (encoderLimitFixed) {
+                throw new IllegalStateException("Encoder budget of " + encoderLimit + " is taken; cannot add " + name);
+            }
+            encoderLimit++;
+            encoderBudget.release();
+        }
+        CaptureUnit unit = new CaptureUnit(name, source, videoAlt, audioAlt, this);
+        units.add(unit);
+        return unit;
+    }
+
+    public synchronized void removeUnit(CaptureUnit unit) {
+        unit.stopPreview();
+        units.remove(unit);
+    }
+
+    public List<CaptureUnit> getUnits() {
+        return units;
+    }
+
+    public FramePool getFramePool() {
+        return framePool;
+    }
+
+    boolean tryAcquireEncoder() {
+        return encoderBudget.tryAcquire();
+    }
+
+    void releaseEncoder() {
+        encoderBudget.release();
+    }
+
+    public Future<?> submitPostProcessing(Runnable task) {
+        return postProcessing.submit(task);
+    }
+
+    public void shutdown() {
+        for (CaptureUnit unit : units) {
+            if (unit.isRecording()) {
+                try {
+                    unit.stopRecording();
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+            }
+            unit.stopPreview();
+        }
+        monitor.shutdownNow();
+        postProcessing.shutdown();
+    }
+}
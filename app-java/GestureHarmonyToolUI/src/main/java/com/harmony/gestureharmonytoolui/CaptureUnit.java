@@ -0,0 +1,158 @@
+package com.harmony.gestureharmonytoolui;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Locale;
+
+// One performer: a camera preview loop plus an ffmpeg recording into that performer's session.
+public class CaptureUnit {
+
+    public enum Health { IDLE, LIVE, STALLED, FAILED }
+
+    private static final long STALL_AFTER_MS = 2_000;
+
+    private final String name;
+    private final FrameSource source;
+    private final String videoAlt;
+    private final String audioAlt;
+    private final CaptureScheduler scheduler;
+    private final FfmpegRecorder recorder = new FfmpegRecorder();
+
+    private volatile String sessionPath;
+    private volatile CaptureLoop captureLoop;
+    private volatile BufferedImage currentFrame;
+    private volatile Health health = Health.IDLE;
+    private volatile double fps;
+    private long lastFrameCount;
+    private long lastFrameSeenMs;
+
+    CaptureUnit(String name, FrameSource source, String videoAlt, String audioAlt, CaptureScheduler scheduler) {
+        this.name = name;
+        this.source = source;
+        this.videoAlt = videoAlt;
+        this.audioAlt = audioAlt;
+        this.scheduler = scheduler;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getAudioAlt() {
+        return audioAlt;
+    }
+
+    public FrameSource getSource() {
+        return source;
+    }
+
+    public String getSessionPath() {
+        return sessionPath;
+    }
+
+    public void setSessionPath(String sessionPath) {
+        this.sessionPath = sessionPath;
+    }
+
+    public BufferedImage getCurrentFrame() {
+        return currentFrame;
+    }
+
+    public Health getHealth() {
+        return health;
+    }
+
+    public double getFps() {
+        return fps;
+    }
+
+    public CaptureLoop getCaptureLoop() {
+        return captureLoop;
+    }
+
+    public synchronized boolean startPreview() {
+        stopPreview();
+
+        CaptureLoop loop = new CaptureLoop(source, frame -> currentFrame = frame, scheduler.getFramePool());
+        if (!loop.start("opencv-capture-" + name)) {
+            health = Health.FAILED;
+            return false;
+        }
+
+        captureLoop = loop;
+        lastFrameCount = 0;
+        lastFrameSeenMs = System.currentTimeMillis();
+        health = Health.LIVE;
+        return true;
+    }
+
+    public synchronized void stopPreview() {
+        CaptureLoop loop = captureLoop;
+        if (loop != null) {
+            loop.stop();
+        }
+        captureLoop = null;
+        currentFrame = null;
+        fps = 0;
+        if (health != Health.FAILED) {
+            health = Health.IDLE;
+        }
+    }
+
+    public void startRecording() throws IOException {
+        if (sessionPath == null) {
+            throw new IOException(name + " has no session");
+        }
+        if (!scheduler.tryAcquireEncoder()) {
+            throw new IOException("Encoder budget exhausted; cannot record " + name);
+        }
+
+        try {
+            recorder.start(Path.of(sessionPath), videoAlt, audioAlt);
+        } catch (IOException e) {
+            scheduler.releaseEncoder();
+            throw e;
+        }
+    }
+
+    public boolean isRecording() {
+        return recorder.isActive();
+    }
+
+    public boolean stopRecording() throws IOException, InterruptedException {
+        if (!recorder.isActive()) {
+            return false;
+        }
+        try {
+            return recorder.stop();
+        } finally {
+            scheduler.releaseEncoder();
+        }
+    }
+
+    // Called by the scheduler's monitor once per interval.
+    synchronized void updateHealth(long nowMs, double intervalSeconds) {
+        CaptureLoop loop = captureLoop;
+        if (loop == null) {
+            return;
+        }
+
+        long frames = loop.getStats().getFrames();
+        fps = (frames - lastFrameCount) / intervalSeconds;
+        if (frames != lastFrameCount) {
+            lastFrameSeenMs = nowMs;
+        }
+        lastFrameCount = frames;
+
+        if (!loop.isRunning()) {
+            health = Health.FAILED;
+        } else {
+            health = nowMs - lastFrameSeenMs > STALL_AFTER_MS ? Health.STALLED : Health.LIVE;
+        }
+    }
+
+    public String describe() {
+        return String.format(Locale.ROOT, "%s  %.1f fps  %s%s", name, fps, health, isRecording() ? "  REC" : "");
+    }
+}
@@ -0,0 +1,100 @@
+package com.harmony.gestureharmonytoolui;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+public class FfmpegRecorder {
+
+    private Process ffmpegProcess;
+    private BufferedWriter ffmpegStdin;
+    private Thread ffmpegLogThread;
+
+    public void start(Path sessionDir, String videoAlt, String audioAlt) throws IOException {
+        Files.createDirectories(sessionDir);
+
+        String videoPath = sessionDir.resolve("video.mp4").toString();
+        String device = "video=\"" + videoAlt + "\":audio=\"" + audioAlt + "\"";
+
+        ProcessBuilder pb = new ProcessBuilder(ToolCommands.ffmpeg(
+                "-y",
+                "-f", "dshow",
+                "-i", device,
+                "-r", "30",
+                "-c:v", "libx264",
+                "-preset", "veryfast",
+                "-crf", "23",
+                "-c:a", "aac",
+                "-b:a", "128k",
+                videoPath
+        ));
+
+        pb.redirectErrorStream(true);
+
+        try {
+            ffmpegProcess = pb.start();
+
+            ffmpegStdin = new BufferedWriter(
+                    new OutputStreamWriter(ffmpegProcess.getOutputStream(), StandardCharsets.UTF_8)
+            );
+
+            Process process = ffmpegProcess;
+            ffmpegLogThread = new Thread(() -> {
+                try (BufferedReader br = new BufferedReader(
+                        new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                    String line;
+                    while ((line = br.readLine()) != null) {
+                        System.out.println("[ffmpeg] " + line);
+                    }
+                } catch (IOException ignored) {}
+            }, "ffmpeg-log-drain");
+            ffmpegLogThread.setDaemon(true);
+            ffmpegLogThread.start();
+        } catch (IOException e) {
+            cleanupHandles();
+            throw e;
+        }
+    }
+
+    public boolean isActive() {
+        return ffmpegProcess != null;
+    }
+
+    // Returns true once ffmpeg has exited and finalized the file, false if it is still alive.
+    public boolean stop() throws IOException, InterruptedException {
+        if (ffmpegProcess == null) {
+            return false;
+        }
+
+        try {
+            if (ffmpegProcess.isAlive() && ffmpegStdin != null) {
+                ffmpegStdin.write("q\n");
+                ffmpegStdin.flush();
+            }
+
+            boolean exited = ffmpegProcess.waitFor(5, TimeUnit.SECONDS);
+
+            if (!exited && ffmpegProcess.isAlive()) {
+                ffmpegProcess.destroyForcibly();
+                ffmpegProcess.waitFor(3, TimeUnit.SECONDS);
+            }
+
+            return !ffmpegProcess.isAlive();
+        } finally {
+            try { if (ffmpegStdin != null) ffmpegStdin.close(); } catch (IOException ignored) {}
+            cleanupHandles();
+        }
+    }
+
+    private void cleanupHandles() {
+        ffmpegProcess = null;
+        ffmpegStdin = null;
+        ffmpegLogThread = null;
+    }
+}
@@ -2,16 +2,148 @@ package com.harmony.gestureharmonytoolui;
 
 import java.io.BufferedReader;
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
 
 public class FfmpegUtils {
 
+    // ffmpeg decodes to raw PCM on stdout; output.wav and the session overview are both written from that stream.
     public String extractWav(String sessionPath){
         String input = sessionPath+"/video.mp4";
         String output = sessionPath + "/output.wav";
+        int sampleRate = 44100;
 
-        ProcessBuilder pb = new ProcessBuilder("ffmpeg", "-y", "-i", input, "-vn", "-acodec", "pcm_s16le", "-ar", "44100", "-ac", "1", output);
+        ProcessBuilder pb = new ProcessBuilder(ToolCommands.ffmpeg("-y", "-i", input, "-vn",
+                "-acodec", "pcm_s16le", "-ar", String.valueOf(sampleRate), "-ac", "1", "-f", "s16le", "pipe:1"));
+        try {
+            Process process = pb.start();
+
+            Thread stderr = new Thread(() -> {
+                try (BufferedReader reader =
+                             new BufferedReader(new InputStreamReader(process.getErrorStream(), StandardCharsets.UTF_8))) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        System.out.println("[ffmpeg] " + line);
+                    }
+                } catch (IOException ignored) {
+                }
+            }, "ffmpeg-extract-log");
+            stderr.setDaemon(true);
+            stderr.start();
+
+            OverviewBuilder overview = new OverviewBuilder(sampleRate);
+            try (InputStream pcm = process.getInputStream();
+                 WavWriter.PcmStream wav = new WavWriter.PcmStream(Path.of(output), 1, sampleRate)) {
+                byte[] buffer = new byte[64 * 1024];
+                int read;
+                while ((read = pcm.read(buffer)) > 0) {
+                    wav.write(buffer, 0, read);
+                    overview.addPcm16(buffer, 0, read);
+                }
+            }
+
+            int exit = process.waitFor();
+            stderr.join();
+
+            if (exit == 0) {
+                overview.finish().save(sessionPath);
+                return output;
+            }
+            Files.deleteIfExists(Path.of(output));
+        }catch(Exception e){
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    // Muxes harmonized_enhanced.wav next to the recorded video stream without re-encoding the video.
+    public String exportVideo(String sessionPath, boolean faststart){
+        String video = sessionPath + "/video.mp4";
+        String audio = sessionPath + "/harmonized_enhanced.wav";
+        String output = sessionPath + "/harmonized_video.mp4";
+
+        if (!new File(video).exists() || !new File(audio).exists()) {
+            System.out.println("[ffmpeg] Export skipped; missing video.mp4 or harmonized_enhanced.wav");
+            return null;
+        }
+
+        double audioStart = probeStartTime(video, "a:0");
+        double videoStart = probeStartTime(video, "v:0");
+        double offset = 0.0;
+        if (Double.isNaN(audioStart) || Double.isNaN(videoStart)) {
+            System.out.println("[ffmpeg] Stream start times unknown; exporting harmony without an offset");
+        } else {
+            offset = harmonyOffset(audioStart, videoStart);
+        }
+
+        List<String> args = new ArrayList<>(List.of(
+                "-y",
+                "-i", video,
+                "-itsoffset", String.format(Locale.ROOT, "%.6f", offset),
+                "-i", audio,
+                "-map", "0:v:0",
+                "-map", "1:a:0",
+                "-c:v", "copy",
+                "-c:a", "aac",
+                "-b:a", "192k"
+        ));
+        if (faststart) {
+            args.add("-movflags");
+            args.add("+faststart");
+        }
+        args.add(output);
+
+        return runFfmpeg(output, args.toArray(new String[0]));
+    }
+
+    // output.wav (and so the harmony) starts at the first audio sample. Without -copyts ffmpeg shifts video.mp4 so its
+    // earliest stream starts at zero, so the harmony belongs at audioStart - min(audioStart, videoStart) on that clock.
+    static double harmonyOffset(double audioStart, double videoStart) {
+        return audioStart - Math.min(audioStart, videoStart);
+    }
+
+    // Returns NaN when ffprobe fails or the stream has no start_time, so callers can tell that apart from 0.0.
+    public double probeStartTime(String input, String streamSpecifier){
+        ProcessBuilder pb = new ProcessBuilder(ToolCommands.ffprobe("-v", "error", "-select_streams", streamSpecifier,
+                "-show_entries", "stream=start_time", "-of", "default=noprint_wrappers=1:nokey=1", input));
+        pb.redirectErrorStream(true);
+        try {
+            Process process = pb.start();
+
+            BufferedReader reader =
+                    new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+
+            double startTime = Double.NaN;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                try {
+                    startTime = Double.parseDouble(line.trim());
+                } catch (NumberFormatException ignored) {
+                    System.out.println("[ffprobe] " + line);
+                }
+            }
+
+            int exit = process.waitFor();
+            if (exit != 0 || Double.isNaN(startTime)) {
+                System.out.println("[ffprobe] No start time for " + streamSpecifier + " in " + input + " (exit " + exit + ")");
+                return Double.NaN;
+            }
+            return startTime;
+        }catch(Exception e){
+            e.printStackTrace();
+        }
+        return Double.NaN;
+    }
+
+    private String runFfmpeg(String output, String... args){
+        ProcessBuilder pb = new ProcessBuilder(ToolCommands.ffmpeg(args));
         pb.redirectErrorStream(true);
         try {
             Process process = pb.start();
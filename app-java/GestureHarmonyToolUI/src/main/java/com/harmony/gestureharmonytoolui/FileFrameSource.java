@@ -0,0 +1,114 @@
+package com.harmony.gestureharmonytoolui;
+
+import org.opencv.core.Mat;
+import org.opencv.videoio.VideoCapture;
+import org.opencv.videoio.Videoio;
+
+import java.util.concurrent.locks.LockSupport;
+
+public class FileFrameSource implements FrameSource {
+
+    private final String videoPath;
+    private volatile VideoCapture videoCapture;
+    private long frameIntervalNanos;
+    private long startNanos;
+    private long nextFrameIndex;
+    private long droppedFrames;
+    private volatile long lastFrameNanos;
+
+    public FileFrameSource(String videoPath) {
+        this.videoPath = videoPath;
+    }
+
+    @Override
+    public boolean open() {
+        VideoCapture capture = new VideoCapture(videoPath);
+        if (!capture.isOpened()) {
+            capture.release();
+            return false;
+        }
+
+        double fps = capture.get(Videoio.CAP_PROP_FPS);
+        frameIntervalNanos = (long) (1_000_000_000L / (fps > 0 ? fps : 30.0));
+        startNanos = System.nanoTime();
+        nextFrameIndex = 0;
+        droppedFrames = 0;
+        videoCapture = capture;
+        return true;
+    }
+
+    @Override
+    public boolean isOpened() {
+        VideoCapture capture = videoCapture;
+        return capture != null && capture.isOpened();
+    }
+
+    @Override
+    public boolean read(Mat frame) {
+        VideoCapture capture = videoCapture;
+        if (capture == null) {
+            return false;
+        }
+
+        // Replay the file at its native rate, skipping frames the consumer was too slow for,
+        // so it behaves like a live camera rather than a decoder running flat out.
+        long due = startNanos + nextFrameIndex * frameIntervalNanos;
+        long now = System.nanoTime();
+        if (now < due) {
+            LockSupport.parkNanos(due - now);
+        } else {
+            // Skipped frames are only grabbed, not decoded, so catching up stays cheap.
+            long behind = (now - due) / frameIntervalNanos;
+            for (long i = 0; i < behind; i++) {
+                if (!grabLooping(capture)) {
+                    return false;
+                }
+            }
+            droppedFrames += behind;
+            nextFrameIndex += behind;
+            due += behind * frameIntervalNanos;
+        }
+
+        if (!readLooping(capture, frame)) {
+            return false;
+        }
+        nextFrameIndex++;
+        lastFrameNanos = due;
+        return true;
+    }
+
+    private boolean grabLooping(VideoCapture capture) {
+        if (capture.grab()) {
+            return true;
+        }
+        capture.set(Videoio.CAP_PROP_POS_FRAMES, 0);
+        return capture.grab();
+    }
+
+    private boolean readLooping(VideoCapture capture, Mat frame) {
+        if (capture.read(frame) && !frame.empty()) {
+            return true;
+        }
+        capture.set(Videoio.CAP_PROP_POS_FRAMES, 0);
+        return capture.read(frame) && !frame.empty();
+    }
+
+    @Override
+    public long lastFrameNanos() {
+        return lastFrameNanos;
+    }
+
+    @Override
+    public long droppedFrames() {
+        return droppedFrames;
+    }
+
+    @Override
+    public void release() {
+        VideoCapture capture = videoCapture;
+        if (capture != null) {
+            capture.release();
+        }
+        videoCapture = null;
+    }
+}
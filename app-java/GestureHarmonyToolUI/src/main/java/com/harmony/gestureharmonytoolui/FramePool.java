@@ -0,0 +1,38 @@
+package com.harmony.gestureharmonytoolui;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+
+// Recycles preview BufferedImages so capture units don't allocate a full frame per read.
+public class FramePool {
+
+    private final int maxPerSize;
+    private final Map<Long, ArrayDeque<BufferedImage>> free = new HashMap<>();
+
+    public FramePool(int maxPerSize) {
+        this.maxPerSize = maxPerSize;
+    }
+
+    public synchronized BufferedImage acquire(int width, int height) {
+        ArrayDeque<BufferedImage> images = free.get(key(width, height));
+        BufferedImage image = images != null ? images.pollFirst() : null;
+        return image != null ? image : new BufferedImage(width, height, BufferedImage.TYPE_3BYTE_BGR);
+    }
+
+    public synchronized void release(BufferedImage image) {
+        if (image == null) {
+            return;
+        }
+        ArrayDeque<BufferedImage> images = free.computeIfAbsent(key(image.getWidth(), image.getHeight()),
+                k -> new ArrayDeque<>());
+        if (images.size() < maxPerSize) {
+            images.addFirst(image);
+        }
+    }
+
+    private static long key(int width, int height) {
+        return ((long) width << 32) | (height & 0xFFFFFFFFL);
+    }
+}
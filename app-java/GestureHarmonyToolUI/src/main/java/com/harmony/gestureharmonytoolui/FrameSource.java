@@ -0,0 +1,19 @@
+package com.harmony.gestureharmonytoolui;
+
+import org.opencv.core.Mat;
+
+public interface FrameSource {
+
+    boolean open();
+
+    boolean isOpened();
+
+    boolean read(Mat frame);
+
+    // System.nanoTime() at which the last frame returned by read() was captured.
+    long lastFrameNanos();
+
+    long droppedFrames();
+
+    void release();
+}
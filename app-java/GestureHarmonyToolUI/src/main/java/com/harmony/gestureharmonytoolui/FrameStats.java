@@ -0,0 +1,70 @@
+package com.harmony.gestureharmonytoolui;
+
+import java.util.Arrays;
+
+public class FrameStats {
+
+    private static final int BUCKETS_PER_MS = 10;
+    private static final int MAX_TRACKED_MS = 2000;
+
+    // Fixed 0.1 ms histogram so an hour of frames costs the same memory as a second of them.
+    private final long[] histogram = new long[MAX_TRACKED_MS * BUCKETS_PER_MS + 1];
+    private long frames;
+    private long maxLatencyNanos;
+
+    public synchronized void recordFrame(long latencyNanos) {
+        long bucket = Math.max(0, latencyNanos) * BUCKETS_PER_MS / 1_000_000L;
+        histogram[(int) Math.min(bucket, histogram.length - 1)]++;
+        frames++;
+        maxLatencyNanos = Math.max(maxLatencyNanos, latencyNanos);
+    }
+
+    public synchronized long getFrames() {
+        return frames;
+    }
+
+    public synchronized double getMaxLatencyMillis() {
+        return maxLatencyNanos / 1_000_000.0;
+    }
+
+    public synchronized double percentileMillis(double percentile) {
+        if (frames == 0) {
+            return 0.0;
+        }
+
+        long target = (long) Math.ceil(frames * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < histogram.length; i++) {
+            seen += histogram[i];
+            if (seen >= target) {
+                return (double) (i + 1) / BUCKETS_PER_MS;
+            }
+        }
+        return getMaxLatencyMillis();
+    }
+
+    public void merge(FrameStats other) {
+        long[] otherHistogram;
+        long otherFrames;
+        long otherMax;
+        synchronized (other) {
+            otherHistogram = other.histogram.clone();
+            otherFrames = other.frames;
+            otherMax = other.maxLatencyNanos;
+        }
+
+        synchronized (this) {
+            for (int i = 0; i < histogram.length; i++) {
+                histogram[i] += otherHistogram[i];
+            }
+            frames += otherFrames;
+            maxLatencyNanos = Math.max(maxLatencyNanos, otherMax);
+        }
+    }
+
+    public synchronized void reset() {
+        Arrays.fill(histogram, 0);
+        frames = 0;
+        maxLatencyNanos = 0;
+    }
+}
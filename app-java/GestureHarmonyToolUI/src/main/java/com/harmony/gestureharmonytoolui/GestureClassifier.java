@@ -0,0 +1,14 @@
+package com.harmony.gestureharmonytoolui;
+
+import org.opencv.core.Mat;
+
+// One instance per analysis thread, so scratch buffers may be reused, but classify must depend only on the frame
+// it is given: OfflineGestureAnalyzer skips frames in stable stretches and bisects buffered frames out of order.
+public interface GestureClassifier {
+
+    // Returns a scale degree such as "I", "II", "IV", or "NONE" when no gesture is recognised.
+    String classify(Mat bgrFrame);
+
+    default void close() {
+    }
+}
@@ -4,13 +4,10 @@ import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.scene.layout.GridPane;
+import javafx.scene.layout.StackPane;
 import javafx.scene.layout.VBox;
 import javafx.embed.swing.SwingNode;
-
-import nu.pattern.OpenCV;
-import org.opencv.core.Mat;
-import org.opencv.imgproc.Imgproc;
-import org.opencv.videoio.VideoCapture;
+import javafx.stage.DirectoryChooser;
 
 import javax.swing.*;
 import java.awt.Color;
@@ -18,24 +15,20 @@ import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.RenderingHints;
 import java.awt.image.BufferedImage;
-import java.awt.image.DataBufferByte;
 import java.io.*;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 
 public class HarmonyController {
 
-    private String currentSessionPath;
     private boolean isRecording;
-    private Process ffmpegProcess;
-    private BufferedWriter ffmpegStdin;
-    private Thread ffmpegLogThread;
+    private final CaptureScheduler scheduler = new CaptureScheduler();
+    private final AtomicInteger activePipelines = new AtomicInteger();
     private Process cameraStreamProcess;
     private Thread cameraStreamLogThread;
 
@@ -46,21 +39,19 @@ public class HarmonyController {
     @FXML private Label processingMessage;
     @FXML private Button startRecording;
     @FXML private Button stopRecording;
+    @FXML private Button removePerformer;
     @FXML private VBox processingOverlay;
     @FXML private VBox previewPlaceholder;
+    @FXML private StackPane overviewPane;
 
     @FXML private ComboBox<MediaDevice> videoDeviceComboBox;
     @FXML private ComboBox<MediaDevice> audioDeviceComboBox;
 
     @FXML private SwingNode cameraSwingNode;
 
+    private final WaveformView waveformView = new WaveformView();
     private JPanel cameraPanel;
-    private volatile BufferedImage currentFrame;
-    private volatile VideoCapture videoCapture;
-    private Thread captureThread;
     private Timer repaintTimer;
-    private final AtomicBoolean cameraRunning = new AtomicBoolean(false);
-    private static volatile boolean openCvLoaded = false;
 
     public static class MediaDevice {
         private final String name;
@@ -90,11 +81,43 @@ public class HarmonyController {
         loadHardwareDevices();
         hideProcessingOverlay();
 
-        videoDeviceComboBox.valueProperty().addListener((obs, oldDevice, newDevice) -> {
-            if (newDevice != null && currentSessionPath != null && !isRecording) {
-                startCamera();
+        waveformView.widthProperty().bind(overviewPane.widthProperty());
+        waveformView.heightProperty().bind(overviewPane.heightProperty());
+        overviewPane.getChildren().add(waveformView);
+    }
+
+    @FXML
+    protected void openSessionOnClick() {
+        DirectoryChooser chooser = new DirectoryChooser();
+        chooser.setTitle("Open Session");
+        File sessions = new File(AppPaths.SESSIONS);
+        if (sessions.isDirectory()) {
+            chooser.setInitialDirectory(sessions);
+        }
+
+        File sessionDir = chooser.showDialog(status.getScene().getWindow());
+        if (sessionDir != null) {
+            status.setText("Status: Opening " + sessionDir.getName() + "...");
+            showSessionOverview(sessionDir.getAbsolutePath());
+        }
+    }
+
+    // Older sessions have no overview.bin yet; loadOrBuild scans output.wav once and caches it, so load off the FX thread.
+    private void showSessionOverview(String sessionPath) {
+        new Thread(() -> {
+            try {
+                SessionOverview overview = SessionOverview.loadOrBuild(sessionPath);
+                Platform.runLater(() -> {
+                    waveformView.setOverview(overview);
+                    overviewPane.setVisible(true);
+                    overviewPane.setManaged(true);
+                    status.setText("Status: Showing " + new File(sessionPath).getName());
+                });
+            } catch (IOException e) {
+                e.printStackTrace();
+                Platform.runLater(() -> status.setText("No audio overview for " + new File(sessionPath).getName()));
             }
-        });
+        }, "session-overview").start();
     }
 
     private void initializeSwingCameraPanel() {
@@ -103,26 +126,47 @@ public class HarmonyController {
                 @Override
                 protected void paintComponent(Graphics g) {
                     super.paintComponent(g);
-                    BufferedImage frame = currentFrame;
-                    if (frame == null) {
+                    // Snapshot: removePerformerOnClick can shrink the live list while the EDT is painting.
+                    List<CaptureUnit> units = List.copyOf(scheduler.getUnits());
+                    if (units.isEmpty()) {
                         return;
                     }
 
                     Graphics2D g2 = (Graphics2D) g.create();
                     g2.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
 
-                    int panelW = getWidth();
-                    int panelH = getHeight();
-                    int imageW = frame.getWidth();
-                    int imageH = frame.getHeight();
-
-                    double scale = Math.min((double) panelW / imageW, (double) panelH / imageH);
-                    int drawW = (int) (imageW * scale);
-                    int drawH = (int) (imageH * scale);
-                    int x = (panelW - drawW) / 2;
-                    int y = (panelH - drawH) / 2;
+                    // One tile per performer, laid out in the squarest grid that fits them all.
+                    int columns = (int) Math.ceil(Math.sqrt(units.size()));
+                    int rows = (int) Math.ceil((double) units.size() / columns);
+                    int tileW = getWidth() / columns;
+                    int tileH = getHeight() / rows;
+
+                    for (int i = 0; i < units.size(); i++) {
+                        CaptureUnit unit = units.get(i);
+                        int tileX = (i % columns) * tileW;
+                        int tileY = (i / columns) * tileH;
+
+                        BufferedImage frame = unit.getCurrentFrame();
+                        if (frame != null) {
+                            int imageW = frame.getWidth();
+                            int imageH = frame.getHeight();
+
+                            double scale = Math.min((double) tileW / imageW, (double) tileH / imageH);
+                            int drawW = (int) (imageW * scale);
+                            int drawH = (int) (imageH * scale);
+                            int x = tileX + (tileW - drawW) / 2;
+                            int y = tileY + (tileH - drawH) / 2;
+
+                            g2.drawImage(frame, x + drawW, y, -drawW, drawH, null);
+                        }
 
-                    g2.drawImage(frame, x + drawW, y, -drawW, drawH, null);
+                        String label = unit.describe();
+                        int labelW = g2.getFontMetrics().stringWidth(label) + 16;
+                        g2.setColor(new Color(15, 23, 42, 190));
+                        g2.fillRoundRect(tileX + 8, tileY + 8, labelW, 24, 12, 12);
+                        g2.setColor(unit.getHealth() == CaptureUnit.Health.LIVE ? new Color(226, 232, 240) : new Color(248, 113, 113));
+                        g2.drawString(label, tileX + 16, tileY + 25);
+                    }
                     g2.dispose();
                 }
             };
@@ -141,9 +185,9 @@ public class HarmonyController {
             List<MediaDevice> audioDevices = new ArrayList<>();
 
             try {
-                ProcessBuilder pb = new ProcessBuilder(
-                        "ffmpeg", "-list_devices", "true", "-f", "dshow", "-i", "dummy"
-                );
+                ProcessBuilder pb = new ProcessBuilder(ToolCommands.ffmpeg(
+                        "-list_devices", "true", "-f", "dshow", "-i", "dummy"
+                ));
                 pb.redirectErrorStream(true);
                 Process process = pb.start();
 
@@ -268,109 +312,134 @@ public class HarmonyController {
             return;
         }
 
-        currentSessionPath = SessionManager.createNewSession();
+        MediaDevice selectedVideo = videoDeviceComboBox.getValue();
+        MediaDevice selectedAudio = audioDeviceComboBox.getValue();
+
+        if (selectedVideo == null || selectedAudio == null) {
+            status.setText("Error: Please select both a camera and a microphone.");
+            return;
+        }
+        if (isRecording) {
+            status.setText("Stop recording before adding a performer.");
+            return;
+        }
+
+        // A new session on a camera that is already previewing replaces that performer's session.
+        int cameraIndex = videoDeviceComboBox.getItems().indexOf(selectedVideo);
+        CaptureUnit unit = findUnitForCamera(cameraIndex);
+        if (unit == null && !scheduler.canAddUnit()) {
+            status.setText("Encoder budget allows " + scheduler.getEncoderLimit()
+                    + " performers; raise -Dharmony.maxEncoders to add more.");
+            return;
+        }
+
+        String sessionPath = SessionManager.createNewSession();
 
         SessionManager.writeConfig(
-                currentSessionPath,
+                sessionPath,
                 config.key,
                 config.scale,
                 config.voices,
                 config.mix
         );
 
-        sessionLabel.setText("Session created: " + currentSessionPath);
+        // The microphone is fixed per unit, so picking a different one rebuilds that performer's unit.
+        String name = "Performer " + (scheduler.getUnits().size() + 1);
+        if (unit != null && !unit.getAudioAlt().equals(selectedAudio.getAltName())) {
+            name = unit.getName();
+            scheduler.removeUnit(unit);
+            unit = null;
+        }
+        if (unit == null) {
+            unit = scheduler.addUnit(
+                    name,
+                    new CameraFrameSource(cameraIndex),
+                    selectedVideo.getAltName(),
+                    selectedAudio.getAltName()
+            );
+            unit.setSessionPath(sessionPath);
+            startCamera(unit);
+        } else {
+            unit.setSessionPath(sessionPath);
+        }
+
+        sessionLabel.setText(scheduler.getUnits().size() > 1
+                ? scheduler.getUnits().size() + " performers. " + unit.getName() + " session: " + sessionPath
+                : "Session created: " + sessionPath);
         status.setText("Session ready. Live camera preview is active.");
 
 
         startRecording.setDisable(false);
         stopRecording.setDisable(true);
+        removePerformer.setDisable(false);
 
     }
 
-    @FXML
-    protected void startRecordingOnClick() {
-        if (currentSessionPath == null) {
-            status.setText("Please create a session first.");
-            return;
+    private CaptureUnit findUnitForCamera(int cameraIndex) {
+        for (CaptureUnit unit : scheduler.getUnits()) {
+            if (unit.getSource() instanceof CameraFrameSource camera && camera.getCameraIndex() == cameraIndex) {
+                return unit;
+            }
         }
-        if (isRecording) return;
-
-        MediaDevice selectedVideo = videoDeviceComboBox.getValue();
-        MediaDevice selectedAudio = audioDeviceComboBox.getValue();
+        return null;
+    }
 
-        if (selectedVideo == null || selectedAudio == null) {
-            status.setText("Error: Please select both a camera and a microphone.");
+    @FXML
+    protected void removePerformerOnClick() {
+        List<CaptureUnit> units = scheduler.getUnits();
+        if (isRecording || units.isEmpty()) {
             return;
         }
 
-        isRecording = true;
+        CaptureUnit unit = units.get(units.size() - 1);
+        scheduler.removeUnit(unit);
+        status.setText(unit.getName() + " removed.");
 
+        if (scheduler.getUnits().isEmpty()) {
+            stopCamera();
+            sessionLabel.setText("Create a session to start your live camera preview.");
+            startRecording.setDisable(true);
+            removePerformer.setDisable(true);
+        }
+    }
 
-        Path sessionDir = Path.of(currentSessionPath);
-        try {
-            Files.createDirectories(sessionDir);
-        } catch (IOException e) {
-            status.setText("Failed to create session dir");
-            e.printStackTrace();
-            isRecording = false;
+    @FXML
+    protected void startRecordingOnClick() {
+        List<CaptureUnit> units = scheduler.getUnits();
+        if (units.isEmpty()) {
+            status.setText("Please create a session first.");
             return;
         }
+        if (isRecording) return;
 
-        String videoPath = sessionDir.resolve("video.mp4").toString();
-
-        String videoAlt = selectedVideo.getAltName();
-        String audioAlt = selectedAudio.getAltName();
-        String device = "video=\"" + videoAlt + "\":audio=\"" + audioAlt + "\"";
-
-        ProcessBuilder pb = new ProcessBuilder(
-                "ffmpeg",
-                "-y",
-                "-f", "dshow",
-                "-i", device,
-                "-r", "30",
-                "-c:v", "libx264",
-                "-preset", "veryfast",
-                "-crf", "23",
-                "-c:a", "aac",
-                "-b:a", "128k",
-                videoPath
-        );
-
-        pb.redirectErrorStream(true);
-
-        try {
-            ffmpegProcess = pb.start();
-
-            ffmpegStdin = new BufferedWriter(
-                    new OutputStreamWriter(ffmpegProcess.getOutputStream(), StandardCharsets.UTF_8)
-            );
-
-            ffmpegLogThread = new Thread(() -> {
-                try (BufferedReader br = new BufferedReader(
-                        new InputStreamReader(ffmpegProcess.getInputStream(), StandardCharsets.UTF_8))) {
-                    String line;
-                    while ((line = br.readLine()) != null) {
-                        System.out.println("[ffmpeg] " + line);
-                    }
-                } catch (IOException ignored) {}
-            }, "ffmpeg-log-drain");
-            ffmpegLogThread.setDaemon(true);
-            ffmpegLogThread.start();
+        isRecording = true;
 
-            status.setText("Recording started...");
+        int started = 0;
+        List<String> failures = new ArrayList<>();
+        for (CaptureUnit unit : units) {
+            try {
+                unit.startRecording();
+                started++;
+            } catch (IOException e) {
+                e.printStackTrace();
+                failures.add(unit.getName());
+            }
+        }
 
-        } catch (Exception e) {
+        if (started == 0) {
             status.setText("Failed to start recording (ffmpeg).");
-            e.printStackTrace();
-            cleanupFfmpegHandles();
             isRecording = false;
             startRecording.setDisable(false);
             stopRecording.setDisable(true);
             return;
         }
 
+        status.setText(failures.isEmpty()
+                ? "Recording started..."
+                : "Recording started; failed for " + String.join(", ", failures) + ".");
         startRecording.setDisable(true);
         stopRecording.setDisable(false);
+        removePerformer.setDisable(true);
     }
 
     @FXML
@@ -379,81 +448,79 @@ public class HarmonyController {
         isRecording = false;
 
         status.setText("Stopping recording...");
-        startRecording.setDisable(false);
+        startRecording.setDisable(true);
         stopRecording.setDisable(true);
 
-        if (ffmpegProcess == null) {
-            status.setText("No active recording process.");
-            return;
-        }
-
-        try {
-            if (ffmpegProcess.isAlive() && ffmpegStdin != null) {
-                ffmpegStdin.write("q\n");
-                ffmpegStdin.flush();
-            }
-
-            boolean exited = ffmpegProcess.waitFor(5, TimeUnit.SECONDS);
+        List<CaptureUnit> recording = scheduler.getUnits().stream().filter(CaptureUnit::isRecording).toList();
 
-            if (!exited && ffmpegProcess.isAlive()) {
-                ffmpegProcess.destroyForcibly();
-                ffmpegProcess.waitFor(3, TimeUnit.SECONDS);
+        // Each stop can wait several seconds for ffmpeg to exit, so stop all performers at once and off the FX thread.
+        new Thread(() -> {
+            AtomicInteger stopped = new AtomicInteger();
+            AtomicInteger timedOut = new AtomicInteger();
+            List<Thread> stoppers = new ArrayList<>();
+            for (CaptureUnit unit : recording) {
+                Thread stopper = new Thread(() -> {
+                    try {
+                        if (unit.stopRecording()) {
+                            stopped.incrementAndGet();
+                            runPostProcessingPipeline(unit);
+                        } else {
+                            timedOut.incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        timedOut.incrementAndGet();
+                        e.printStackTrace();
+                    }
+                }, "stop-recording-" + unit.getName());
+                stopper.setDaemon(true);
+                stopper.start();
+                stoppers.add(stopper);
             }
 
-            if (!ffmpegProcess.isAlive()) {
-                status.setText("Recording stopped. Rendering final harmony in the background...");
-                runPostProcessingPipeline();
-            } else {
-                status.setText("Recording stop timed out; process may still be alive.");
+            for (Thread stopper : stoppers) {
+                try {
+                    stopper.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
             }
 
-        } catch (Exception e) {
-            status.setText("Error stopping recording.");
-            e.printStackTrace();
-        } finally {
-            try { if (ffmpegStdin != null) ffmpegStdin.close(); } catch (IOException ignored) {}
-            cleanupFfmpegHandles();
-        }
-
-        startRecording.setDisable(false);
-        stopRecording.setDisable(true);
-
-    }
+            Platform.runLater(() -> {
+                if (stopped.get() == 0 && timedOut.get() == 0) {
+                    status.setText("No active recording process.");
+                } else if (timedOut.get() > 0) {
+                    status.setText("Recording stop timed out for " + timedOut.get() + " performer(s); process may still be alive.");
+                } else {
+                    status.setText("Recording stopped. Rendering final harmony in the background...");
+                }
 
-    private void cleanupFfmpegHandles() {
-        ffmpegProcess = null;
-        ffmpegStdin = null;
-        ffmpegLogThread = null;
+                startRecording.setDisable(false);
+                stopRecording.setDisable(true);
+                removePerformer.setDisable(false);
+            });
+        }, "stop-recording").start();
     }
 
-    public void startCamera() {
-        if (cameraRunning.get()) {
-            stopCamera();
-        }
-
-        if (!loadOpenCvLibrary()) {
+    public void startCamera(CaptureUnit unit) {
+        if (!OpenCvLoader.load()) {
             Platform.runLater(() -> status.setText("OpenCV native library failed to load."));
             return;
         }
 
-        // Requirement: use VideoCapture(0) for native desktop camera capture.
-        VideoCapture capture = new VideoCapture(0);
-
-        if (!capture.isOpened()) {
-            capture.release();
+        if (!unit.startPreview()) {
             Platform.runLater(() -> {
-                status.setText("Unable to open camera via OpenCV VideoCapture(0).");
-                previewPlaceholder.setVisible(true);
-                previewPlaceholder.setManaged(true);
-                cameraSwingNode.setVisible(false);
-                cameraSwingNode.setManaged(false);
+                status.setText("Unable to open camera for " + unit.getName() + " via OpenCV VideoCapture.");
+                if (scheduler.getUnits().size() == 1) {
+                    previewPlaceholder.setVisible(true);
+                    previewPlaceholder.setManaged(true);
+                    cameraSwingNode.setVisible(false);
+                    cameraSwingNode.setManaged(false);
+                }
             });
             return;
         }
 
-        videoCapture = capture;
-        cameraRunning.set(true);
-
         Platform.runLater(() -> {
             cameraSwingNode.setVisible(true);
             cameraSwingNode.setManaged(true);
@@ -463,33 +530,6 @@ public class HarmonyController {
         });
 
         startSwingRepaintLoop();
-
-        captureThread = new Thread(() -> {
-            Mat frame = new Mat();
-            Mat bgrFrame = new Mat();
-
-            while (cameraRunning.get() && videoCapture != null && videoCapture.isOpened()) {
-                if (!videoCapture.read(frame) || frame.empty()) {
-                    continue;
-                }
-
-                if (frame.channels() == 1) {
-                    Imgproc.cvtColor(frame, bgrFrame, Imgproc.COLOR_GRAY2BGR);
-                } else if (frame.channels() == 4) {
-                    Imgproc.cvtColor(frame, bgrFrame, Imgproc.COLOR_BGRA2BGR);
-                } else {
-                    frame.copyTo(bgrFrame);
-                }
-
-                currentFrame = matToBufferedImage(bgrFrame);
-            }
-
-            frame.release();
-            bgrFrame.release();
-        }, "opencv-camera-capture");
-
-        captureThread.setDaemon(true);
-        captureThread.start();
     }
 
     private void startSwingRepaintLoop() {
@@ -508,61 +548,13 @@ public class HarmonyController {
         });
     }
 
-    private BufferedImage matToBufferedImage(Mat mat) {
-        int width = mat.width();
-        int height = mat.height();
-        int channels = mat.channels();
-
-        byte[] sourcePixels = new byte[width * height * channels];
-        mat.get(0, 0, sourcePixels);
-
-        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_3BYTE_BGR);
-        byte[] targetPixels = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
-        System.arraycopy(sourcePixels, 0, targetPixels, 0, Math.min(sourcePixels.length, targetPixels.length));
-        return image;
-    }
-
-    private boolean loadOpenCvLibrary() {
-        if (openCvLoaded) {
-            return true;
-        }
-
-        synchronized (HarmonyController.class) {
-            if (openCvLoaded) {
-                return true;
-            }
-
-            try {
-                OpenCV.loadLocally();
-                openCvLoaded = true;
-                return true;
-            } catch (Throwable t) {
-                t.printStackTrace();
-                return false;
-            }
-        }
-    }
-
     public void stopCamera() {
-        cameraRunning.set(false);
-
-        Thread localCaptureThread = captureThread;
-        if (localCaptureThread != null && localCaptureThread.isAlive()) {
-            try {
-                localCaptureThread.join(300);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
-        }
-        captureThread = null;
-
-        VideoCapture capture = videoCapture;
-        if (capture != null) {
-            capture.release();
-        }
-        videoCapture = null;
-
-        currentFrame = null;
+        Platform.runLater(() -> {
+            previewPlaceholder.setVisible(true);
+            previewPlaceholder.setManaged(true);
+            cameraSwingNode.setVisible(false);
+            cameraSwingNode.setManaged(false);
+        });
 
         SwingUtilities.invokeLater(() -> {
             if (repaintTimer != null) {
@@ -576,37 +568,37 @@ public class HarmonyController {
     }
 
     public void shutdown() {
+        scheduler.shutdown();
     }
 
-    private void runPostProcessingPipeline() {
+    private void runPostProcessingPipeline(CaptureUnit unit) {
+        String sessionPath = unit.getSessionPath();
+        String prefix = scheduler.getUnits().size() > 1 ? unit.getName() + ": " : "";
+
+        activePipelines.incrementAndGet();
         showProcessingOverlay();
 
-        Thread pipelineThread = new Thread(() -> {
+        scheduler.submitPostProcessing(() -> {
             try {
-                updateProcessingMessage("Analyzing gesture flow...");
-                new PythonRunner().runAnalyzeSession(currentSessionPath);
-
-                updateProcessingMessage("Extracting clean audio for harmony blending...");
-                new FfmpegUtils().extractWav(currentSessionPath);
-
-                updateProcessingMessage("Composing harmonized output...");
-                new PythonRunner().runHarmonizeAudio(currentSessionPath);
+                new PostProcessingPipeline().run(sessionPath, message -> updateProcessingMessage(prefix + message));
 
                 Platform.runLater(() -> {
-                    hideProcessingOverlay();
+                    if (activePipelines.decrementAndGet() == 0) {
+                        hideProcessingOverlay();
+                    }
                     status.setText("Processing complete! Your harmonized output is ready.");
                 });
+                showSessionOverview(sessionPath);
             } catch (Exception e) {
                 Platform.runLater(() -> {
-                    hideProcessingOverlay();
+                    if (activePipelines.decrementAndGet() == 0) {
+                        hideProcessingOverlay();
+                    }
                     status.setText("Background processing failed. Check logs for details.");
                 });
                 e.printStackTrace();
             }
-        }, "post-process-pipeline");
-
-        pipelineThread.setDaemon(true);
-        pipelineThread.start();
+        });
     }
 
     private void showProcessingOverlay() {
@@ -0,0 +1,91 @@
+package com.harmony.gestureharmonytoolui;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+
+import static java.lang.foreign.ValueLayout.JAVA_FLOAT;
+
+/*
+ * Off-heap stereo mix bus mirroring the master section of harmonize_audio.py:
+ * constant-power pan, per-voice gain, summing into left/right, then peak
+ * normalization and interleaving. Buffers are float samples in MemorySegments.
+ */
+public class MixBus implements AutoCloseable {
+
+    private static final int MIXDOWN_CHUNK_FRAMES = 64 * 1024;
+
+    public static final float NORMALIZE_THRESHOLD = 0.95f;
+    public static final float NORMALIZE_TARGET = 0.944f;
+
+    private final Arena arena = Arena.ofShared();
+    private final MixKernel kernel;
+    private final long frames;
+    private final MemorySegment left;
+    private final MemorySegment right;
+
+    public MixBus(long frames) {
+        this(frames, MixKernels.best());
+    }
+
+    public MixBus(long frames, MixKernel kernel) {
+        this.frames = frames;
+        this.kernel = kernel;
+        this.left = arena.allocate(JAVA_FLOAT, frames);
+        this.right = arena.allocate(JAVA_FLOAT, frames);
+    }
+
+    public long getFrames() {
+        return frames;
+    }
+
+    public Arena arena() {
+        return arena;
+    }
+
+    // Lives until the bus is closed, so allocate one buffer and reuse it across voices. addVoice takes any
+    // MemorySegment, so callers that want per-voice lifetimes can allocate from their own Arena (or a float[]).
+    public MemorySegment allocateMono(long count) {
+        return arena.allocate(JAVA_FLOAT, count);
+    }
+
+    // pan: -1.0 (left) .. 1.0 (right); mono holds count samples to be mixed in at startFrame.
+    public void addVoice(MemorySegment mono, long startFrame, long count, float pan, float gain) {
+        long clipped = Math.min(count, frames - startFrame);
+        if (startFrame < 0 || clipped <= 0) {
+            return;
+        }
+
+        double angle = (Math.max(-1.0, Math.min(1.0, pan)) + 1.0) * (Math.PI / 4.0);
+        float leftGain = (float) (Math.cos(angle) * gain);
+        float rightGain = (float) (Math.sin(angle) * gain);
+        kernel.accumulateStereo(mono, 0, left, right, startFrame, clipped, leftGain, rightGain);
+    }
+
+    public float peak() {
+        return Math.max(kernel.peak(left, frames), kernel.peak(right, frames));
+    }
+
+    // Streams the mix into a stereo PcmStream, normalized to NORMALIZE_TARGET if it peaks above NORMALIZE_THRESHOLD.
+    // Interleaving and quantizing happen a block at a time, so no full-length stereo copy is ever allocated.
+    public void mixdown(WavWriter.PcmStream out) throws IOException {
+        float peak = peak();
+        float scale = peak > NORMALIZE_THRESHOLD ? NORMALIZE_TARGET / peak : 1.0f;
+
+        try (Arena scratch = Arena.ofConfined()) {
+            MemorySegment block = scratch.allocate(JAVA_FLOAT, MIXDOWN_CHUNK_FRAMES * 2L);
+            for (long frame = 0; frame < frames; frame += MIXDOWN_CHUNK_FRAMES) {
+                long count = Math.min(MIXDOWN_CHUNK_FRAMES, frames - frame);
+                long offset = frame * JAVA_FLOAT.byteSize();
+                long length = count * JAVA_FLOAT.byteSize();
+                kernel.interleave(left.asSlice(offset, length), right.asSlice(offset, length), block, count, scale);
+                out.writeFloats(block, count * 2);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        arena.close();
+    }
+}
@@ -0,0 +1,17 @@
+package com.harmony.gestureharmonytoolui;
+
+import java.lang.foreign.MemorySegment;
+
+// Offsets and counts are in float elements, not bytes. Implementations must give bit-identical results.
+public interface MixKernel {
+
+    // left[dst + i] += src[srcOffset + i] * leftGain, and likewise for right.
+    void accumulateStereo(MemorySegment src, long srcOffset,
+                          MemorySegment left, MemorySegment right, long dstOffset,
+                          long count, float leftGain, float rightGain);
+
+    float peak(MemorySegment samples, long count);
+
+    // out[2i] = left[i] * scale, out[2i + 1] = right[i] * scale
+    void interleave(MemorySegment left, MemorySegment right, MemorySegment out, long frames, float scale);
+}
@@ -0,0 +1,28 @@
+package com.harmony.gestureharmonytoolui;
+
+public class MixKernels {
+
+    private static volatile MixKernel best;
+
+    // Uses the Vector API when jdk.incubator.vector is resolved (--add-modules), otherwise the scalar loop.
+    public static MixKernel best() {
+        MixKernel kernel = best;
+        if (kernel != null) {
+            return kernel;
+        }
+
+        if (Boolean.getBoolean("harmony.mix.scalar")) {
+            kernel = new ScalarMixKernel();
+        } else {
+            try {
+                kernel = new VectorMixKernel();
+            } catch (LinkageError e) {
+                kernel = new ScalarMixKernel();
+            }
+        }
+
+        System.out.println("[mix] Using " + kernel.getClass().getSimpleName());
+        best = kernel;
+        return kernel;
+    }
+}
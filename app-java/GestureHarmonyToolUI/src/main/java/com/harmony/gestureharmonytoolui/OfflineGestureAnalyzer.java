@@ -0,0 +1,267 @@
+package com.harmony.gestureharmonytoolui;
+
+import org.opencv.core.Mat;
+import org.opencv.core.Size;
+import org.opencv.imgproc.Imgproc;
+import org.opencv.videoio.VideoCapture;
+import org.opencv.videoio.Videoio;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/*
+ * Java port of analyze_video_session in live_gesture.py.
+ *
+ * The video is split into frame ranges decoded in parallel, each by its own VideoCapture.
+ * Within a range only every sampleStep-th frame is classified; when two samples disagree
+ * the buffered frames in between are binary-searched to find the exact change frame.
+ * Ranges are stitched back together and compressed with the same rules as the Python script.
+ */
+public class OfflineGestureAnalyzer {
+
+    // Finer than MERGE_GAP_SECONDS, so a NONE gap long enough to split two same-degree runs in compress_segments is
+    // always sampled; the margin covers frame rounding at the 0.15 s boundary. Accepted difference: a non-NONE blip
+    // (I, II, I) keeps the runs apart in Python at any length, but one shorter than this interval can fall between
+    // samples, and then the runs merge here. Such a blip is below MIN_SEGMENT_SECONDS, so only the split differs.
+    private static final double SAMPLE_INTERVAL_SECONDS = 0.1;
+    private static final double MERGE_GAP_SECONDS = 0.15;
+    private static final double MIN_SEGMENT_SECONDS = 0.2;
+    private static final double MIN_CHUNK_SECONDS = 5.0;
+    private static final int ANALYSIS_WIDTH = 640;
+
+    private final Supplier<GestureClassifier> classifierFactory;
+    private final int threads;
+
+    public OfflineGestureAnalyzer(Supplier<GestureClassifier> classifierFactory, int threads) {
+        this.classifierFactory = classifierFactory;
+        this.threads = Math.max(1, threads);
+    }
+
+    public OfflineGestureAnalyzer() {
+        this(SkinFingerClassifier::new, Runtime.getRuntime().availableProcessors());
+    }
+
+    static class RawSegment {
+        final int startFrame;
+        int endFrame;
+        final String degree;
+
+        RawSegment(int startFrame, int endFrame, String degree) {
+            this.startFrame = startFrame;
+            this.endFrame = endFrame;
+            this.degree = degree;
+        }
+    }
+
+    public int analyzeSession(String sessionPath) {
+        String videoPath = sessionPath + "/video.mp4";
+        if (!new File(videoPath).exists()) {
+            System.out.println("[gesture] Missing video: " + videoPath);
+            return 1;
+        }
+        if (!OpenCvLoader.load()) {
+            System.out.println("[gesture] OpenCV native library failed to load.");
+            return 1;
+        }
+
+        VideoCapture probe = new VideoCapture(videoPath);
+        if (!probe.isOpened()) {
+            probe.release();
+            System.out.println("[gesture] Unable to open video: " + videoPath);
+            return 1;
+        }
+        double reportedFps = probe.get(Videoio.CAP_PROP_FPS);
+        int frameCount = (int) probe.get(Videoio.CAP_PROP_FRAME_COUNT);
+        probe.release();
+
+        double fps = reportedFps > 0 ? reportedFps : 30.0;
+        List<RawSegment> raw;
+        try {
+            raw = analyzeParallel(videoPath, fps, frameCount);
+        } catch (Exception e) {
+            e.printStackTrace();
+            return 1;
+        }
+
+        List<TimelineSegment> timeline = compressSegments(raw, fps);
+        if (timeline.isEmpty()) {
+            timeline.add(new TimelineSegment(0.0, 0.5, "I"));
+        }
+
+        SessionManager.writeTimeline(sessionPath, timeline);
+        System.out.println("[gesture] Timeline segments: " + timeline.size());
+        return 0;
+    }
+
+    private List<RawSegment> analyzeParallel(String videoPath, double fps, int frameCount)
+            throws InterruptedException, ExecutionException {
+        int minChunkFrames = (int) Math.ceil(MIN_CHUNK_SECONDS * fps);
+        int chunks = frameCount > 0 ? Math.max(1, Math.min(threads * 2, frameCount / minChunkFrames)) : 1;
+        int chunkFrames = frameCount > 0 ? (frameCount + chunks - 1) / chunks : Integer.MAX_VALUE;
+        int sampleStep = Math.max(1, (int) Math.floor(SAMPLE_INTERVAL_SECONDS * fps));
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, chunks), r -> {
+            Thread thread = new Thread(r, "gesture-analysis");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try {
+            List<Future<List<RawSegment>>> futures = new ArrayList<>();
+            for (int i = 0; i < chunks; i++) {
+                int start = i * chunkFrames;
+                // FRAME_COUNT is only an estimate for some containers, so the last range reads to EOF.
+                int end = i == chunks - 1 ? Integer.MAX_VALUE : start + chunkFrames;
+                futures.add(executor.submit(() -> analyzeRange(videoPath, start, end, sampleStep)));
+            }
+
+            List<List<RawSegment>> ranges = new ArrayList<>();
+            for (Future<List<RawSegment>> future : futures) {
+                ranges.add(future.get());
+            }
+            return stitch(ranges);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // Joins per-range results in order; a degree that runs across a range boundary becomes one segment.
+    static List<RawSegment> stitch(List<List<RawSegment>> ranges) {
+        List<RawSegment> stitched = new ArrayList<>();
+        for (List<RawSegment> range : ranges) {
+            for (RawSegment segment : range) {
+                RawSegment last = stitched.isEmpty() ? null : stitched.get(stitched.size() - 1);
+                if (last != null && last.degree.equals(segment.degree) && last.endFrame == segment.startFrame) {
+                    last.endFrame = segment.endFrame;
+                } else {
+                    stitched.add(segment);
+                }
+            }
+        }
+        return stitched;
+    }
+
+    private List<RawSegment> analyzeRange(String videoPath, int startFrame, int endFrame, int sampleStep) {
+        List<RawSegment> segments = new ArrayList<>();
+        VideoCapture capture = new VideoCapture(videoPath);
+        GestureClassifier classifier = classifierFactory.get();
+        Mat frame = new Mat();
+        List<Mat> pending = new ArrayList<>();
+
+        try {
+            if (!capture.isOpened()) {
+                throw new IllegalStateException("Unable to open video: " + videoPath);
+            }
+            if (startFrame > 0) {
+                capture.set(Videoio.CAP_PROP_POS_FRAMES, startFrame);
+            }
+
+            String prevDegree = null;
+            int segStart = startFrame;
+            int lastSampled = startFrame;
+            int f = startFrame;
+
+            for (; f < endFrame && capture.read(frame) && !frame.empty(); f++) {
+                Mat small = downscale(frame);
+                boolean sample = prevDegree == null || f - lastSampled >= sampleStep || f == endFrame - 1;
+                if (!sample) {
+                    pending.add(small);
+                    continue;
+                }
+
+                String degree = classifier.classify(small);
+                small.release();
+
+                if (prevDegree == null) {
+                    prevDegree = degree;
+                    segStart = f;
+                } else if (!degree.equals(prevDegree)) {
+                    int change = findChange(classifier, pending, lastSampled + 1, prevDegree, f);
+                    segments.add(new RawSegment(segStart, change, prevDegree));
+                    segStart = change;
+                    prevDegree = degree;
+                }
+
+                pending.forEach(Mat::release);
+                pending.clear();
+                lastSampled = f;
+            }
+
+            if (prevDegree != null) {
+                segments.add(new RawSegment(segStart, f, prevDegree));
+            }
+            return segments;
+        } finally {
+            pending.forEach(Mat::release);
+            frame.release();
+            classifier.close();
+            capture.release();
+        }
+    }
+
+    // pending holds frames firstFrame..changedFrame-1; returns the first frame whose degree differs from prevDegree.
+    static int findChange(GestureClassifier classifier, List<Mat> pending, int firstFrame,
+                           String prevDegree, int changedFrame) {
+        int lo = 0;
+        int hi = pending.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (classifier.classify(pending.get(mid)).equals(prevDegree)) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo < pending.size() ? firstFrame + lo : changedFrame;
+    }
+
+    private Mat downscale(Mat frame) {
+        Mat small = new Mat();
+        if (frame.width() <= ANALYSIS_WIDTH) {
+            frame.copyTo(small);
+        } else {
+            double scale = (double) ANALYSIS_WIDTH / frame.width();
+            Imgproc.resize(frame, small, new Size(ANALYSIS_WIDTH, Math.round(frame.height() * scale)),
+                    0, 0, Imgproc.INTER_AREA);
+        }
+        return small;
+    }
+
+    // Port of compress_segments: drop NONE, merge same-degree segments closer than MERGE_GAP_SECONDS, keep those
+    // at least MIN_SEGMENT_SECONDS long.
+    static List<TimelineSegment> compressSegments(List<RawSegment> raw, double fps) {
+        List<TimelineSegment> merged = new ArrayList<>();
+        for (RawSegment segment : raw) {
+            if (segment.degree.equals("NONE")) {
+                continue;
+            }
+            double start = segment.startFrame / fps;
+            double end = segment.endFrame / fps;
+
+            TimelineSegment last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+            if (last != null && last.degree.equals(segment.degree) && Math.abs(start - last.end) < MERGE_GAP_SECONDS) {
+                merged.set(merged.size() - 1, new TimelineSegment(last.start, end, last.degree));
+                continue;
+            }
+            merged.add(new TimelineSegment(round3(start), round3(end), segment.degree));
+        }
+
+        List<TimelineSegment> kept = new ArrayList<>();
+        for (TimelineSegment segment : merged) {
+            if (segment.end - segment.start >= MIN_SEGMENT_SECONDS) {
+                kept.add(segment);
+            }
+        }
+        return kept;
+    }
+
+    private static double round3(double value) {
+        return Math.round(value * 1000.0) / 1000.0;
+    }
+}
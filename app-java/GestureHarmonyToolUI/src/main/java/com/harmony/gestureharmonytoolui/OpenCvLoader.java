@@ -0,0 +1,29 @@
+package com.harmony.gestureharmonytoolui;
+
+import nu.pattern.OpenCV;
+
+public class OpenCvLoader {
+
+    private static volatile boolean openCvLoaded = false;
+
+    public static boolean load() {
+        if (openCvLoaded) {
+            return true;
+        }
+
+        synchronized (OpenCvLoader.class) {
+            if (openCvLoaded) {
+                return true;
+            }
+
+            try {
+                OpenCV.loadLocally();
+                openCvLoaded = true;
+                return true;
+            } catch (Throwable t) {
+                t.printStackTrace();
+                return false;
+            }
+        }
+    }
+}
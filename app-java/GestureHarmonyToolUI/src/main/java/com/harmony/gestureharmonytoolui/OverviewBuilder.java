@@ -0,0 +1,111 @@
+package com.harmony.gestureharmonytoolui;
+
+import java.util.Arrays;
+
+// Builds the min/max peak pyramid of a SessionOverview one sample at a time, as the audio is being written.
+public class OverviewBuilder {
+
+    public static final int BASE_BLOCK = 512;
+    public static final int FACTOR = 4;
+    public static final int LEVELS = 6;
+
+    private final int sampleRate;
+    private final ShortList[] mins = new ShortList[LEVELS];
+    private final ShortList[] maxs = new ShortList[LEVELS];
+    private final int[] pendingCount = new int[LEVELS];
+    private final short[] pendingMin = new short[LEVELS];
+    private final short[] pendingMax = new short[LEVELS];
+    private long totalSamples;
+    private int carryByte = -1;
+
+    public OverviewBuilder(int sampleRate) {
+        this.sampleRate = sampleRate;
+        for (int level = 0; level < LEVELS; level++) {
+            mins[level] = new ShortList();
+            maxs[level] = new ShortList();
+            resetPending(level);
+        }
+    }
+
+    // Little-endian 16-bit mono PCM; a sample split across two calls is carried over.
+    public void addPcm16(byte[] buffer, int offset, int length) {
+        int i = offset;
+        int end = offset + length;
+        if (carryByte >= 0 && i < end) {
+            addSample((short) ((buffer[i++] << 8) | carryByte));
+            carryByte = -1;
+        }
+        for (; i + 1 < end; i += 2) {
+            addSample((short) ((buffer[i + 1] << 8) | (buffer[i] & 0xFF)));
+        }
+        if (i < end) {
+            carryByte = buffer[i] & 0xFF;
+        }
+    }
+
+    public void addSample(short sample) {
+        pendingMin[0] = (short) Math.min(pendingMin[0], sample);
+        pendingMax[0] = (short) Math.max(pendingMax[0], sample);
+        totalSamples++;
+        if (++pendingCount[0] == BASE_BLOCK) {
+            pushBlock(0, pendingMin[0], pendingMax[0]);
+            resetPending(0);
+        }
+    }
+
+    private void pushBlock(int level, short min, short max) {
+        mins[level].add(min);
+        maxs[level].add(max);
+
+        int parent = level + 1;
+        if (parent >= LEVELS) {
+            return;
+        }
+        pendingMin[parent] = (short) Math.min(pendingMin[parent], min);
+        pendingMax[parent] = (short) Math.max(pendingMax[parent], max);
+        if (++pendingCount[parent] == FACTOR) {
+            pushBlock(parent, pendingMin[parent], pendingMax[parent]);
+            resetPending(parent);
+        }
+    }
+
+    private void resetPending(int level) {
+        pendingCount[level] = 0;
+        pendingMin[level] = Short.MAX_VALUE;
+        pendingMax[level] = Short.MIN_VALUE;
+    }
+
+    // Flushes partial blocks bottom-up so every level covers the tail of the audio.
+    public SessionOverview finish() {
+        for (int level = 0; level < LEVELS; level++) {
+            if (pendingCount[level] > 0) {
+                pushBlock(level, pendingMin[level], pendingMax[level]);
+                resetPending(level);
+            }
+        }
+
+        short[][] levelMins = new short[LEVELS][];
+        short[][] levelMaxs = new short[LEVELS][];
+        for (int level = 0; level < LEVELS; level++) {
+            levelMins[level] = mins[level].toArray();
+            levelMaxs[level] = maxs[level].toArray();
+        }
+        return new SessionOverview(sampleRate, totalSamples, BASE_BLOCK, FACTOR, levelMins, levelMaxs);
+    }
+
+    private static class ShortList {
+        private short[] values = new short[1024];
+        private int size;
+
+        void add(short value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        short[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.harmony.gestureharmonytoolui;
+
+import java.util.function.Consumer;
+
+public class PostProcessingPipeline {
+
+    public void run(String sessionPath, Consumer<String> progress) {
+        progress.accept("Analyzing gesture flow...");
+        if ("java".equals(System.getProperty("harmony.analyzer"))) {
+            new OfflineGestureAnalyzer().analyzeSession(sessionPath);
+        } else {
+            new PythonRunner().runAnalyzeSession(sessionPath);
+        }
+
+        progress.accept("Extracting clean audio for harmony blending...");
+        new FfmpegUtils().extractWav(sessionPath);
+
+        RenderDispatcher.shared().harmonize(sessionPath, progress);
+
+        progress.accept("Indexing session overview...");
+        SessionOverview.refreshAnalysis(sessionPath);
+
+        progress.accept("Exporting shareable video...");
+        // -Dharmony.export.faststart=false skips the moov relocation pass for local playback of long sessions.
+        boolean faststart = Boolean.parseBoolean(System.getProperty("harmony.export.faststart", "true"));
+        new FfmpegUtils().exportVideo(sessionPath, faststart);
+    }
+}
@@ -3,11 +3,13 @@ package com.harmony.gestureharmonytoolui;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.InputStreamReader;
+import java.nio.file.Path;
+import java.util.function.Consumer;
 
 public class PythonRunner {
     public void runAnalyzeSession(String sessionPath){
-        String scriptPath = "C:\\College\\Projects\\GestureHarmonyTool\\engine-py\\scripts\\live_gesture.py";
-        ProcessBuilder pb = new ProcessBuilder("python", scriptPath, sessionPath);
+        String scriptPath = Path.of(AppPaths.ENGINE, "scripts", "live_gesture.py").toString();
+        ProcessBuilder pb = new ProcessBuilder(ToolCommands.python(scriptPath, sessionPath));
         pb.redirectErrorStream(true);
         pb.directory(new File("."));
 
@@ -26,8 +28,13 @@ public class PythonRunner {
         }
     }
 
-    public void runHarmonizeAudio(String sessionPath){
-        ProcessBuilder pb = new ProcessBuilder("python", "C:\\College\\Projects\\GestureHarmonyTool\\engine-py\\scripts\\harmonize_audio.py", sessionPath);
+    public int runHarmonizeAudio(String sessionPath){
+        return runHarmonizeAudio(sessionPath, line -> System.out.println("[harmonize] "+line));
+    }
+
+    public int runHarmonizeAudio(String sessionPath, Consumer<String> log){
+        String scriptPath = Path.of(AppPaths.ENGINE, "scripts", "harmonize_audio.py").toString();
+        ProcessBuilder pb = new ProcessBuilder(ToolCommands.python(scriptPath, sessionPath));
         pb.redirectErrorStream(true);
         try{
             Process process = pb.start();
@@ -35,14 +42,16 @@ public class PythonRunner {
             BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()));
             String line;
             while((line=reader.readLine())!=null){
-                System.out.println("[harmonize] "+line);
+                log.accept(line);
             }
 
             int exitCode = process.waitFor();
             System.out.println("Harmonize exited with code: "+exitCode);
+            return exitCode;
 
         }catch(Exception e){
             e.printStackTrace();
         }
+        return -1;
     }
 }
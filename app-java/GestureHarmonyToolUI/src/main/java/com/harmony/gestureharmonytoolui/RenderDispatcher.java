@@ -0,0 +1,197 @@
+package com.harmony.gestureharmonytoolui;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/*
+ * Sends the harmonize stage to registered RenderWorkers and falls back to running it locally.
+ * Workers come from -Dharmony.renderWorkers=host:port,host:port or register(); each job goes to
+ * whichever of the workers and the local machine has the fewest jobs in flight, preferring workers.
+ * The handshake carries -Dharmony.renderToken, which must match the workers' --token.
+ */
+public class RenderDispatcher {
+
+    private static final int CONNECT_TIMEOUT_MS = 2_000;
+    private static final long UNHEALTHY_BACKOFF_MS = 30_000;
+    private static final List<String> RESULT_FILES = resultFiles();
+
+    private static RenderDispatcher shared;
+
+    private final List<Worker> workers = new CopyOnWriteArrayList<>();
+    private final String token;
+    private int localInFlight;
+
+    private static class Worker {
+        final InetSocketAddress address;
+        int inFlight;
+        long unhealthyUntil;
+
+        Worker(InetSocketAddress address) {
+            this.address = address;
+        }
+    }
+
+    public RenderDispatcher() {
+        this(RenderProtocol.configuredToken());
+    }
+
+    public RenderDispatcher(String token) {
+        this.token = token;
+    }
+
+    public static synchronized RenderDispatcher shared() {
+        if (shared == null) {
+            shared = new RenderDispatcher();
+            for (String entry : System.getProperty("harmony.renderWorkers", "").split(",")) {
+                if (!entry.isBlank()) {
+                    shared.register(entry.trim());
+                }
+            }
+        }
+        return shared;
+    }
+
+    public void register(String hostAndPort) {
+        int colon = hostAndPort.lastIndexOf(':');
+        String host = colon < 0 ? hostAndPort : hostAndPort.substring(0, colon);
+        int port = colon < 0 ? RenderProtocol.DEFAULT_PORT : Integer.parseInt(hostAndPort.substring(colon + 1));
+        register(new InetSocketAddress(host, port));
+    }
+
+    public void register(InetSocketAddress address) {
+        workers.add(new Worker(address));
+        System.out.println("[render] Registered worker " + address);
+    }
+
+    // Returns true once harmonized_enhanced.wav exists in the session, rendered remotely or locally.
+    public boolean harmonize(String sessionPath, Consumer<String> progress) {
+        Path sessionDir = Path.of(sessionPath);
+        boolean bundleComplete = RenderProtocol.BUNDLE_FILES.stream()
+                .allMatch(name -> Files.exists(sessionDir.resolve(name)));
+
+        List<Worker> tried = new ArrayList<>();
+        while (bundleComplete) {
+            Worker worker = acquireWorker(tried);
+            if (worker == null) {
+                break;
+            }
+            tried.add(worker);
+
+            try {
+                progress.accept("Composing harmonized output on " + worker.address.getHostString() + "...");
+                if (renderRemote(worker.address, sessionDir)) {
+                    return true;
+                }
+                System.out.println("[render] Worker " + worker.address + " could not render; trying next.");
+            } catch (IOException e) {
+                System.out.println("[render] Worker " + worker.address + " failed: " + e.getMessage());
+                markUnhealthy(worker);
+            } finally {
+                release(worker);
+            }
+        }
+
+        synchronized (this) {
+            localInFlight++;
+        }
+        try {
+            progress.accept("Composing harmonized output...");
+            return new PythonRunner().runHarmonizeAudio(sessionPath) == 0
+                    && Files.exists(sessionDir.resolve(RenderProtocol.RESULT_FILE));
+        } finally {
+            synchronized (this) {
+                localInFlight--;
+            }
+        }
+    }
+
+    // Picks the least-loaded healthy worker, or null when running locally would be no slower.
+    private synchronized Worker acquireWorker(List<Worker> exclude) {
+        long now = System.currentTimeMillis();
+        Worker best = null;
+        for (Worker worker : workers) {
+            if (exclude.contains(worker) || worker.unhealthyUntil > now) {
+                continue;
+            }
+            if (best == null || worker.inFlight < best.inFlight) {
+                best = worker;
+            }
+        }
+
+        if (best == null || best.inFlight > localInFlight) {
+            return null;
+        }
+        best.inFlight++;
+        return best;
+    }
+
+    private synchronized void release(Worker worker) {
+        worker.inFlight--;
+    }
+
+    private synchronized void markUnhealthy(Worker worker) {
+        worker.unhealthyUntil = System.currentTimeMillis() + UNHEALTHY_BACKOFF_MS;
+    }
+
+    private boolean renderRemote(InetSocketAddress address, Path sessionDir) throws IOException {
+        try (Socket socket = new Socket()) {
+            socket.connect(address, CONNECT_TIMEOUT_MS);
+            socket.setSoTimeout(RenderProtocol.READ_TIMEOUT_MS);
+
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+
+            out.writeInt(RenderProtocol.MAGIC);
+            out.writeInt(RenderProtocol.VERSION);
+            out.writeUTF(token);
+            out.writeInt(RenderProtocol.BUNDLE_FILES.size());
+            out.flush();
+
+            byte reply = in.readByte();
+            if (reply == RenderProtocol.MSG_ERROR) {
+                throw new IOException("Worker refused job: " + in.readUTF());
+            }
+            if (reply != RenderProtocol.MSG_ACCEPT) {
+                throw new IOException("Unexpected handshake reply " + reply);
+            }
+
+            for (String name : RenderProtocol.BUNDLE_FILES) {
+                RenderProtocol.sendFile(out, sessionDir.resolve(name));
+            }
+            out.flush();
+
+            while (true) {
+                byte type = in.readByte();
+                switch (type) {
+                    case RenderProtocol.MSG_HEARTBEAT -> { }
+                    case RenderProtocol.MSG_LOG -> System.out.println("[harmonize@" + address.getHostString() + "] " + in.readUTF());
+                    case RenderProtocol.MSG_FILE -> RenderProtocol.receiveFile(in, sessionDir, RESULT_FILES);
+                    case RenderProtocol.MSG_DONE -> {
+                        int exitCode = in.readInt();
+                        System.out.println("Remote harmonize exited with code: " + exitCode);
+                        return exitCode == 0 && Files.exists(sessionDir.resolve(RenderProtocol.RESULT_FILE));
+                    }
+                    case RenderProtocol.MSG_ERROR -> throw new IOException(in.readUTF());
+                    default -> throw new IOException("Unknown message type " + type);
+                }
+            }
+        }
+    }
+
+    private static List<String> resultFiles() {
+        List<String> names = new ArrayList<>(RenderProtocol.EXTRA_RESULT_FILES);
+        names.add(RenderProtocol.RESULT_FILE);
+        return List.copyOf(names);
+    }
+}
@@ -0,0 +1,122 @@
+package com.harmony.gestureharmonytoolui;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/*
+ * Wire format between RenderDispatcher and RenderWorker (all integers big-endian, strings as writeUTF).
+ *
+ *   client -> worker: MAGIC, VERSION, shared token, file count
+ *   worker -> client: ACCEPT, or ERROR(message) and the connection closes
+ *   client -> worker: each bundle file
+ *   worker -> client: any number of LOG / HEARTBEAT messages, optionally a FILE with the result,
+ *                     then DONE(exit code) or ERROR(message)
+ *
+ * The client waits for the reply before streaming the bundle, so a busy worker or a bad token costs a
+ * round trip rather than an upload the worker never reads.
+ *
+ * A file is its name, total size, then chunks of (length, bytes, CRC32 of those bytes), ended by a zero length.
+ * The token comes from -Dharmony.renderToken (worker: --token=); an empty token on the worker accepts any client.
+ */
+public class RenderProtocol {
+
+    public static final int MAGIC = 0x47485257;
+    public static final int VERSION = 3;
+    public static final int DEFAULT_PORT = 5052;
+    public static final int CHUNK_SIZE = 256 * 1024;
+    // An hour of stereo harmony is about 635 MB; anything declared larger is refused before it touches the disk.
+    public static final long MAX_FILE_BYTES = 1L << 30;
+
+    public static final byte MSG_ACCEPT = 'A';
+    public static final byte MSG_LOG = 'L';
+    public static final byte MSG_HEARTBEAT = 'H';
+    public static final byte MSG_FILE = 'F';
+    public static final byte MSG_DONE = 'D';
+    public static final byte MSG_ERROR = 'E';
+
+    public static final long HEARTBEAT_INTERVAL_MS = 5_000;
+    public static final int READ_TIMEOUT_MS = 30_000;
+
+    public static final List<String> BUNDLE_FILES = List.of("config.json", "timeline.json", "output.wav");
+    public static final String RESULT_FILE = "harmonized_enhanced.wav";
+    // Optional results shipped back alongside RESULT_FILE when the job produced them.
+    public static final List<String> EXTRA_RESULT_FILES = List.of("pitch.json");
+
+    public static void sendFile(DataOutputStream out, Path file) throws IOException {
+        out.writeUTF(file.getFileName().toString());
+        out.writeLong(Files.size(file));
+
+        byte[] buffer = new byte[CHUNK_SIZE];
+        CRC32 crc = new CRC32();
+        try (InputStream in = Files.newInputStream(file)) {
+            int read;
+            while ((read = in.readNBytes(buffer, 0, buffer.length)) > 0) {
+                crc.reset();
+                crc.update(buffer, 0, read);
+                out.writeInt(read);
+                out.write(buffer, 0, read);
+                out.writeLong(crc.getValue());
+            }
+        }
+        out.writeInt(0);
+    }
+
+    // Only names in allowedNames are accepted, so a peer cannot write outside dir.
+    public static Path receiveFile(DataInputStream in, Path dir, List<String> allowedNames) throws IOException {
+        String name = in.readUTF();
+        if (!allowedNames.contains(name)) {
+            throw new IOException("Unexpected file in transfer: " + name);
+        }
+        long size = in.readLong();
+        if (size < 0 || size > MAX_FILE_BYTES) {
+            throw new IOException("Refusing " + name + " of " + size + " bytes");
+        }
+
+        Path target = dir.resolve(name);
+        Path partial = dir.resolve(name + ".part");
+        byte[] buffer = new byte[CHUNK_SIZE];
+        CRC32 crc = new CRC32();
+        long received = 0;
+
+        try (OutputStream out = Files.newOutputStream(partial)) {
+            int length;
+            while ((length = in.readInt()) > 0) {
+                if (length > CHUNK_SIZE) {
+                    throw new IOException("Chunk too large in " + name + ": " + length);
+                }
+                if (received + length > size) {
+                    throw new IOException("Transfer of " + name + " exceeds its declared " + size + " bytes");
+                }
+                in.readFully(buffer, 0, length);
+                crc.reset();
+                crc.update(buffer, 0, length);
+                if (crc.getValue() != in.readLong()) {
+                    throw new IOException("Checksum mismatch in " + name + " at offset " + received);
+                }
+                out.write(buffer, 0, length);
+                received += length;
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(partial);
+            throw e;
+        }
+
+        if (received != size) {
+            Files.deleteIfExists(partial);
+            throw new IOException("Truncated transfer of " + name + ": " + received + " of " + size + " bytes");
+        }
+        return Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    public static String configuredToken() {
+        return System.getProperty("harmony.renderToken", "");
+    }
+}
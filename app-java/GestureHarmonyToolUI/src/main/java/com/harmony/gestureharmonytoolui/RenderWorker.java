@@ -0,0 +1,235 @@
+package com.harmony.gestureharmonytoolui;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Comparator;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/*
+ * Standalone render worker: receives a session bundle over RenderProtocol, runs the harmonize stage
+ * on it and streams the log and harmonized_enhanced.wav back.
+ *
+ *   java -cp ... com.harmony.gestureharmonytoolui.RenderWorker --port=5052 --slots=1 [--bind=0.0.0.0 --token=...]
+ *
+ * Binds to loopback unless --bind is given; set a token whenever the worker is reachable from the LAN.
+ */
+public class RenderWorker {
+
+    // Connections beyond slots * this are turned away instead of each getting a thread and a temp dir.
+    private static final int CONNECTIONS_PER_SLOT = 4;
+
+    private final int port;
+    private final InetAddress bindAddress;
+    private final byte[] token;
+    private final Semaphore renderSlots;
+    private final Semaphore connections;
+    private final ScheduledExecutorService heartbeats = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "render-heartbeat");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile ServerSocket serverSocket;
+
+    public RenderWorker(int port, InetAddress bindAddress, int slots, String token) {
+        this.port = port;
+        this.bindAddress = bindAddress;
+        this.token = token.getBytes(StandardCharsets.UTF_8);
+        this.renderSlots = new Semaphore(Math.max(1, slots), true);
+        this.connections = new Semaphore(Math.max(1, slots) * CONNECTIONS_PER_SLOT);
+    }
+
+    public static void main(String[] args) throws Exception {
+        int port = RenderProtocol.DEFAULT_PORT;
+        int slots = 1;
+        InetAddress bind = InetAddress.getLoopbackAddress();
+        String token = RenderProtocol.configuredToken();
+        for (String arg : args) {
+            if (arg.startsWith("--port=")) {
+                port = Integer.parseInt(arg.substring("--port=".length()));
+            } else if (arg.startsWith("--slots=")) {
+                slots = Integer.parseInt(arg.substring("--slots=".length()));
+            } else if (arg.startsWith("--bind=")) {
+                bind = InetAddress.getByName(arg.substring("--bind=".length()));
+            } else if (arg.startsWith("--token=")) {
+                token = arg.substring("--token=".length());
+            }
+        }
+        if (token.isEmpty() && !bind.isLoopbackAddress()) {
+            System.out.println("[worker] WARNING: listening on " + bind.getHostAddress() + " without --token");
+        }
+        new RenderWorker(port, bind, slots, token).serve();
+    }
+
+    public int getLocalPort() {
+        ServerSocket socket = serverSocket;
+        return socket != null ? socket.getLocalPort() : port;
+    }
+
+    public void serve() throws IOException {
+        serverSocket = new ServerSocket(port, 50, bindAddress);
+        System.out.println("[worker] Listening on " + serverSocket.getLocalSocketAddress());
+
+        while (!serverSocket.isClosed()) {
+            Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (IOException e) {
+                if (serverSocket.isClosed()) {
+                    break;
+                }
+                throw e;
+            }
+
+            if (!connections.tryAcquire()) {
+                System.out.println("[worker] Turning away " + socket.getRemoteSocketAddress() + "; too many connections");
+                try (socket) {
+                    send(new DataOutputStream(socket.getOutputStream()), RenderProtocol.MSG_ERROR, "Worker busy");
+                } catch (IOException ignored) {}
+                continue;
+            }
+
+            Thread handler = new Thread(() -> {
+                try {
+                    handle(socket);
+                } finally {
+                    connections.release();
+                }
+            }, "render-job-" + socket.getPort());
+            handler.setDaemon(true);
+            handler.start();
+        }
+    }
+
+    public void close() throws IOException {
+        ServerSocket socket = serverSocket;
+        if (socket != null) {
+            socket.close();
+        }
+        heartbeats.shutdownNow();
+    }
+
+    private void handle(Socket socket) {
+        Path jobDir = null;
+        ScheduledFuture<?> heartbeat = null;
+
+        try (socket) {
+            socket.setSoTimeout(RenderProtocol.READ_TIMEOUT_MS);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+
+            if (in.readInt() != RenderProtocol.MAGIC || in.readInt() != RenderProtocol.VERSION) {
+                send(out, RenderProtocol.MSG_ERROR, "Unsupported protocol");
+                return;
+            }
+            byte[] clientToken = in.readUTF().getBytes(StandardCharsets.UTF_8);
+            if (token.length > 0 && !MessageDigest.isEqual(token, clientToken)) {
+                System.out.println("[worker] Rejected " + socket.getRemoteSocketAddress() + ": bad token");
+                send(out, RenderProtocol.MSG_ERROR, "Unauthorized");
+                return;
+            }
+
+            int fileCount = in.readInt();
+            if (fileCount < 0 || fileCount > RenderProtocol.BUNDLE_FILES.size()) {
+                send(out, RenderProtocol.MSG_ERROR, "Unexpected bundle of " + fileCount + " files");
+                return;
+            }
+            send(out, RenderProtocol.MSG_ACCEPT, null);
+
+            jobDir = Files.createTempDirectory("render-job");
+            for (int i = 0; i < fileCount; i++) {
+                RenderProtocol.receiveFile(in, jobDir, RenderProtocol.BUNDLE_FILES);
+            }
+            System.out.println("[worker] Received bundle from " + socket.getRemoteSocketAddress());
+
+            // Keep the client's read timeout from firing while queued for a slot or during long renders.
+            heartbeat = heartbeats.scheduleAtFixedRate(() -> {
+                try {
+                    send(out, RenderProtocol.MSG_HEARTBEAT, null);
+                } catch (IOException ignored) {}
+            }, 0, RenderProtocol.HEARTBEAT_INTERVAL_MS, TimeUnit.MILLISECONDS);
+
+            int exitCode;
+            renderSlots.acquire();
+            try {
+                exitCode = new PythonRunner().runHarmonizeAudio(jobDir.toString(), line -> {
+                    System.out.println("[harmonize] " + line);
+                    try {
+                        send(out, RenderProtocol.MSG_LOG, line);
+                    } catch (IOException ignored) {}
+                });
+            } finally {
+                renderSlots.release();
+            }
+
+            heartbeat.cancel(false);
+            Path result = jobDir.resolve(RenderProtocol.RESULT_FILE);
+            synchronized (out) {
+                if (exitCode == 0 && Files.exists(result)) {
+                    out.writeByte(RenderProtocol.MSG_FILE);
+                    RenderProtocol.sendFile(out, result);
+                    for (String name : RenderProtocol.EXTRA_RESULT_FILES) {
+                        Path extra = jobDir.resolve(name);
+                        if (Files.exists(extra)) {
+                            out.writeByte(RenderProtocol.MSG_FILE);
+                            RenderProtocol.sendFile(out, extra);
+                        }
+                    }
+                }
+                out.writeByte(RenderProtocol.MSG_DONE);
+                out.writeInt(exitCode);
+                out.flush();
+            }
+            System.out.println("[worker] Job finished with code " + exitCode);
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            System.out.println("[worker] Job failed: " + e.getMessage());
+        } finally {
+            if (heartbeat != null) {
+                heartbeat.cancel(false);
+            }
+            deleteRecursively(jobDir);
+        }
+    }
+
+    private static void send(DataOutputStream out, byte type, String text) throws IOException {
+        synchronized (out) {
+            out.writeByte(type);
+            if (text != null) {
+                out.writeUTF(text.length() > 16_000 ? text.substring(0, 16_000) : text);
+            }
+            out.flush();
+        }
+    }
+
+    private static void deleteRecursively(Path path) {
+        if (path == null || !Files.exists(path)) {
+            return;
+        }
+        try (Stream<Path> walk = Files.walk(path)) {
+            walk.sorted(Comparator.reverseOrder()).forEach(p -> {
+                try {
+                    Files.deleteIfExists(p);
+                } catch (IOException ignored) {}
+            });
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.harmony.gestureharmonytoolui;
+
+import java.lang.foreign.MemorySegment;
+
+import static java.lang.foreign.ValueLayout.JAVA_FLOAT;
+
+public class ScalarMixKernel implements MixKernel {
+
+    @Override
+    public void accumulateStereo(MemorySegment src, long srcOffset,
+                                 MemorySegment left, MemorySegment right, long dstOffset,
+                                 long count, float leftGain, float rightGain) {
+        for (long i = 0; i < count; i++) {
+            float sample = src.getAtIndex(JAVA_FLOAT, srcOffset + i);
+            long d = dstOffset + i;
+            left.setAtIndex(JAVA_FLOAT, d, left.getAtIndex(JAVA_FLOAT, d) + sample * leftGain);
+            right.setAtIndex(JAVA_FLOAT, d, right.getAtIndex(JAVA_FLOAT, d) + sample * rightGain);
+        }
+    }
+
+    @Override
+    public float peak(MemorySegment samples, long count) {
+        float peak = 0f;
+        for (long i = 0; i < count; i++) {
+            peak = Math.max(peak, Math.abs(samples.getAtIndex(JAVA_FLOAT, i)));
+        }
+        return peak;
+    }
+
+    @Override
+    public void interleave(MemorySegment left, MemorySegment right, MemorySegment out, long frames, float scale) {
+        for (long i = 0; i < frames; i++) {
+            out.setAtIndex(JAVA_FLOAT, 2 * i, left.getAtIndex(JAVA_FLOAT, i) * scale);
+            out.setAtIndex(JAVA_FLOAT, 2 * i + 1, right.getAtIndex(JAVA_FLOAT, i) * scale);
+        }
+    }
+}
@@ -3,18 +3,36 @@ package com.harmony.gestureharmonytoolui;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 public class SessionManager {
+    private static final Pattern SEGMENT = Pattern.compile("\\{([^}]*)\\}");
+    private static final Pattern START = Pattern.compile("\"start\"\\s*:\\s*([-+0-9.eE]+)");
+    private static final Pattern END = Pattern.compile("\"end\"\\s*:\\s*([-+0-9.eE]+)");
+    private static final Pattern DEGREE = Pattern.compile("\"degree\"\\s*:\\s*\"([^\"]*)\"");
+
     public static String createNewSession(){
-        String base = AppPaths.SESSIONS;
+        return createNewSession(AppPaths.SESSIONS);
+    }
+
+    public static String createNewSession(String base){
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss");
         String id = LocalDateTime.now().format(formatter);
         String folderName = base+"/session_"+id;
 
+        // Several performers can start sessions within the same second.
         File file = new File(folderName);
-        file.mkdir();
+        for (int suffix = 2; !file.mkdir() && file.exists(); suffix++) {
+            file = new File(folderName + "_" + suffix);
+        }
         return file.getAbsolutePath();
 
     }
@@ -38,4 +56,53 @@ public class SessionManager {
             }
 
     }
+
+    public static void writeTimeline(String sessionPath, List<TimelineSegment> timeline){
+        String filepath = sessionPath+"/timeline.json";
+
+        StringBuilder jsonText = new StringBuilder("[");
+        for (int i = 0; i < timeline.size(); i++) {
+            TimelineSegment segment = timeline.get(i);
+            jsonText.append(i == 0 ? "\n" : ",\n")
+                    .append("  {\n")
+                    .append("    \"start\": ").append(segment.start).append(",\n")
+                    .append("    \"end\": ").append(segment.end).append(",\n")
+                    .append("    \"degree\": \"").append(segment.degree).append("\"\n")
+                    .append("  }");
+        }
+        jsonText.append(timeline.isEmpty() ? "]" : "\n]");
+
+        try(FileWriter writer = new FileWriter(filepath)){
+            writer.write(jsonText.toString());
+            writer.flush();
+            System.out.println("Saved timeline: " + filepath);
+        } catch(IOException e){
+            e.printStackTrace();
+        }
+    }
+
+    // Reads timeline.json as written by writeTimeline or live_gesture.py; missing or malformed entries are skipped.
+    public static List<TimelineSegment> readTimeline(String sessionPath){
+        List<TimelineSegment> timeline = new ArrayList<>();
+        Path filepath = Path.of(sessionPath, "timeline.json");
+        if (!Files.exists(filepath)) {
+            return timeline;
+        }
+
+        try {
+            Matcher segment = SEGMENT.matcher(Files.readString(filepath, StandardCharsets.UTF_8));
+            while (segment.find()) {
+                Matcher start = START.matcher(segment.group(1));
+                Matcher end = END.matcher(segment.group(1));
+                Matcher degree = DEGREE.matcher(segment.group(1));
+                if (start.find() && end.find() && degree.find()) {
+                    timeline.add(new TimelineSegment(Double.parseDouble(start.group(1)),
+                            Double.parseDouble(end.group(1)), degree.group(1)));
+                }
+            }
+        } catch(IOException | NumberFormatException e){
+            e.printStackTrace();
+        }
+        return timeline;
+    }
 }
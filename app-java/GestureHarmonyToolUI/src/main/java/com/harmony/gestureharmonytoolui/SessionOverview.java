@@ -0,0 +1,285 @@
+package com.harmony.gestureharmonytoolui;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Small per-session sidecar holding everything the session browser draws: a min/max peak pyramid of output.wav,
+// the downsampled pitch contour and the chord timeline. Views read only this file, never the audio itself.
+public class SessionOverview {
+
+    public static final String FILE_NAME = "overview.bin";
+    public static final double PITCH_STEP_SECONDS = 0.05;
+
+    private static final int MAGIC = 0x47484F56;
+    private static final int VERSION = 1;
+    private static final Pattern HOP_SECONDS = Pattern.compile("\"hop_seconds\"\\s*:\\s*([-+0-9.eE]+)");
+    private static final Pattern MIDI = Pattern.compile("\"midi\"\\s*:\\s*\\[([^\\]]*)\\]");
+
+    private final int sampleRate;
+    private final long totalSamples;
+    private final int baseBlock;
+    private final int factor;
+    private final short[][] mins;
+    private final short[][] maxs;
+    private float[] pitchMidi = new float[0];
+    private List<TimelineSegment> timeline = Collections.emptyList();
+
+    SessionOverview(int sampleRate, long totalSamples, int baseBlock, int factor, short[][] mins, short[][] maxs) {
+        this.sampleRate = sampleRate;
+        this.totalSamples = totalSamples;
+        this.baseBlock = baseBlock;
+        this.factor = factor;
+        this.mins = mins;
+        this.maxs = maxs;
+    }
+
+    // Loads the sidecar, building it once from output.wav for sessions recorded before it existed.
+    public static SessionOverview loadOrBuild(String sessionPath) throws IOException {
+        if (Files.exists(Path.of(sessionPath, FILE_NAME))) {
+            return load(sessionPath);
+        }
+        SessionOverview overview = buildFromWav(Path.of(sessionPath, "output.wav"));
+        overview.attachAnalysis(sessionPath);
+        overview.save(sessionPath);
+        return overview;
+    }
+
+    // Folds pitch.json and timeline.json into an existing sidecar once harmonization has produced them.
+    public static void refreshAnalysis(String sessionPath) {
+        try {
+            SessionOverview overview = Files.exists(Path.of(sessionPath, FILE_NAME))
+                    ? load(sessionPath)
+                    : buildFromWav(Path.of(sessionPath, "output.wav"));
+            overview.attachAnalysis(sessionPath);
+            overview.save(sessionPath);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    public static SessionOverview load(String sessionPath) throws IOException {
+        Path path = Path.of(sessionPath, FILE_NAME);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Not a session overview: " + path);
+            }
+
+            int sampleRate = in.readInt();
+            long totalSamples = in.readLong();
+            int baseBlock = in.readInt();
+            int factor = in.readInt();
+            int levels = in.readInt();
+            short[][] mins = new short[levels][];
+            short[][] maxs = new short[levels][];
+            for (int level = 0; level < levels; level++) {
+                mins[level] = readShorts(in);
+                maxs[level] = readShorts(in);
+            }
+
+            SessionOverview overview = new SessionOverview(sampleRate, totalSamples, baseBlock, factor, mins, maxs);
+            overview.pitchMidi = new float[in.readInt()];
+            for (int i = 0; i < overview.pitchMidi.length; i++) {
+                overview.pitchMidi[i] = in.readFloat();
+            }
+
+            int segments = in.readInt();
+            List<TimelineSegment> timeline = new ArrayList<>(segments);
+            for (int i = 0; i < segments; i++) {
+                timeline.add(new TimelineSegment(in.readDouble(), in.readDouble(), in.readUTF()));
+            }
+            overview.timeline = timeline;
+            return overview;
+        }
+    }
+
+    public void save(String sessionPath) throws IOException {
+        Path path = Path.of(sessionPath, FILE_NAME);
+        Path part = Path.of(sessionPath, FILE_NAME + ".part");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(part)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(sampleRate);
+            out.writeLong(totalSamples);
+            out.writeInt(baseBlock);
+            out.writeInt(factor);
+            out.writeInt(mins.length);
+            for (int level = 0; level < mins.length; level++) {
+                writeShorts(out, mins[level]);
+                writeShorts(out, maxs[level]);
+            }
+
+            out.writeInt(pitchMidi.length);
+            for (float midi : pitchMidi) {
+                out.writeFloat(midi);
+            }
+
+            out.writeInt(timeline.size());
+            for (TimelineSegment segment : timeline) {
+                out.writeDouble(segment.start);
+                out.writeDouble(segment.end);
+                out.writeUTF(segment.degree);
+            }
+        }
+        Files.move(part, path, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    public void attachAnalysis(String sessionPath) {
+        timeline = SessionManager.readTimeline(sessionPath);
+        timeline.sort((a, b) -> Double.compare(a.start, b.start));
+
+        Path pitchPath = Path.of(sessionPath, "pitch.json");
+        if (!Files.exists(pitchPath)) {
+            return;
+        }
+        try {
+            String text = Files.readString(pitchPath, StandardCharsets.UTF_8);
+            Matcher hop = HOP_SECONDS.matcher(text);
+            Matcher midi = MIDI.matcher(text);
+            if (hop.find() && midi.find()) {
+                pitchMidi = downsamplePitch(Double.parseDouble(hop.group(1)), midi.group(1).split(","));
+            }
+        } catch (IOException | NumberFormatException e) {
+            e.printStackTrace();
+        }
+    }
+
+    // Averages the voiced pyin frames falling into each PITCH_STEP_SECONDS bucket; NaN marks unvoiced buckets.
+    private float[] downsamplePitch(double hopSeconds, String[] frames) {
+        int buckets = (int) Math.ceil(getDurationSeconds() / PITCH_STEP_SECONDS);
+        float[] sums = new float[buckets];
+        int[] counts = new int[buckets];
+        for (int i = 0; i < frames.length; i++) {
+            String value = frames[i].trim();
+            int bucket = (int) (i * hopSeconds / PITCH_STEP_SECONDS);
+            if (bucket >= buckets || value.isEmpty() || value.equals("null")) {
+                continue;
+            }
+            sums[bucket] += Float.parseFloat(value);
+            counts[bucket]++;
+        }
+
+        float[] contour = new float[buckets];
+        for (int i = 0; i < buckets; i++) {
+            contour[i] = counts[i] > 0 ? sums[i] / counts[i] : Float.NaN;
+        }
+        return contour;
+    }
+
+    static SessionOverview buildFromWav(Path wav) throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(wav))) {
+            ByteBuffer riff = ByteBuffer.wrap(in.readNBytes(12)).order(ByteOrder.LITTLE_ENDIAN);
+            if (riff.limit() < 12 || riff.getInt(0) != 0x46464952 || riff.getInt(8) != 0x45564157) {
+                throw new IOException("Not a RIFF WAV file: " + wav);
+            }
+
+            int sampleRate = 0;
+            while (true) {
+                ByteBuffer chunk = ByteBuffer.wrap(in.readNBytes(8)).order(ByteOrder.LITTLE_ENDIAN);
+                if (chunk.limit() < 8) {
+                    throw new IOException("No data chunk in " + wav);
+                }
+                String id = new String(chunk.array(), 0, 4, StandardCharsets.US_ASCII);
+                long size = chunk.getInt(4) & 0xFFFFFFFFL;
+
+                if (id.equals("fmt ")) {
+                    ByteBuffer format = ByteBuffer.wrap(in.readNBytes((int) size)).order(ByteOrder.LITTLE_ENDIAN);
+                    if (format.getShort(0) != 1 || format.getShort(2) != 1 || format.getShort(14) != 16) {
+                        throw new IOException("Expected mono 16-bit PCM: " + wav);
+                    }
+                    sampleRate = format.getInt(4);
+                } else if (id.equals("data")) {
+                    if (sampleRate == 0) {
+                        throw new IOException("Data chunk before fmt chunk in " + wav);
+                    }
+                    OverviewBuilder builder = new OverviewBuilder(sampleRate);
+                    byte[] buffer = new byte[64 * 1024];
+                    long remaining = size;
+                    int read;
+                    while (remaining > 0
+                            && (read = in.read(buffer, 0, (int) Math.min(buffer.length, remaining))) > 0) {
+                        builder.addPcm16(buffer, 0, read);
+                        remaining -= read;
+                    }
+                    return builder.finish();
+                } else {
+                    in.skipNBytes(size + (size & 1));
+                }
+            }
+        }
+    }
+
+    private static short[] readShorts(DataInputStream in) throws IOException {
+        short[] values = new short[in.readInt()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = in.readShort();
+        }
+        return values;
+    }
+
+    private static void writeShorts(DataOutputStream out, short[] values) throws IOException {
+        out.writeInt(values.length);
+        for (short value : values) {
+            out.writeShort(value);
+        }
+    }
+
+    // Coarsest level whose blocks are still no wider than one pixel, so a redraw touches O(width) blocks.
+    public int levelForSamplesPerPixel(double samplesPerPixel) {
+        int level = 0;
+        while (level + 1 < mins.length && getBlockSamples(level + 1) <= samplesPerPixel) {
+            level++;
+        }
+        return level;
+    }
+
+    public long getBlockSamples(int level) {
+        long block = baseBlock;
+        for (int i = 0; i < level; i++) {
+            block *= factor;
+        }
+        return block;
+    }
+
+    public short[] getMins(int level) {
+        return mins[level];
+    }
+
+    public short[] getMaxs(int level) {
+        return maxs[level];
+    }
+
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    public long getTotalSamples() {
+        return totalSamples;
+    }
+
+    public double getDurationSeconds() {
+        return (double) totalSamples / sampleRate;
+    }
+
+    public float[] getPitchMidi() {
+        return pitchMidi;
+    }
+
+    public List<TimelineSegment> getTimeline() {
+        return timeline;
+    }
+}
@@ -0,0 +1,128 @@
+package com.harmony.gestureharmonytoolui;
+
+import org.opencv.core.Core;
+import org.opencv.core.CvException;
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfInt;
+import org.opencv.core.MatOfInt4;
+import org.opencv.core.MatOfPoint;
+import org.opencv.core.Point;
+import org.opencv.core.Rect;
+import org.opencv.core.Scalar;
+import org.opencv.core.Size;
+import org.opencv.imgproc.Imgproc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Skin-mask + convexity-defect finger counter; a dependency-free stand-in for the MediaPipe detector.
+public class SkinFingerClassifier implements GestureClassifier {
+
+    private static final double MIN_HAND_AREA_FRACTION = 0.02;
+
+    private final Mat ycrcb = new Mat();
+    private final Mat mask = new Mat();
+    private final Mat hierarchy = new Mat();
+    private final Mat kernel = Imgproc.getStructuringElement(Imgproc.MORPH_ELLIPSE, new Size(5, 5));
+
+    public static String chordFromFingers(int fingersUp) {
+        if (fingersUp == 1) {
+            return "I";
+        }
+        if (fingersUp == 2) {
+            return "II";
+        }
+        if (fingersUp == 3) {
+            return "IV";
+        }
+        return "NONE";
+    }
+
+    @Override
+    public String classify(Mat bgrFrame) {
+        Imgproc.cvtColor(bgrFrame, ycrcb, Imgproc.COLOR_BGR2YCrCb);
+        Core.inRange(ycrcb, new Scalar(0, 133, 77), new Scalar(255, 173, 127), mask);
+        Imgproc.morphologyEx(mask, mask, Imgproc.MORPH_OPEN, kernel);
+        Imgproc.morphologyEx(mask, mask, Imgproc.MORPH_CLOSE, kernel);
+
+        List<MatOfPoint> contours = new ArrayList<>();
+        Imgproc.findContours(mask, contours, hierarchy, Imgproc.RETR_EXTERNAL, Imgproc.CHAIN_APPROX_SIMPLE);
+
+        MatOfPoint hand = null;
+        double handArea = 0;
+        for (MatOfPoint contour : contours) {
+            double area = Imgproc.contourArea(contour);
+            if (area > handArea) {
+                handArea = area;
+                hand = contour;
+            }
+        }
+
+        try {
+            if (hand == null || handArea < MIN_HAND_AREA_FRACTION * bgrFrame.total()) {
+                return "NONE";
+            }
+            return chordFromFingers(countFingers(hand));
+        } finally {
+            contours.forEach(Mat::release);
+        }
+    }
+
+    private int countFingers(MatOfPoint hand) {
+        MatOfInt hull = new MatOfInt();
+        MatOfInt4 defects = new MatOfInt4();
+        try {
+            Imgproc.convexHull(hand, hull, false);
+            if (hull.rows() < 3) {
+                return 0;
+            }
+            Imgproc.convexityDefects(hand, hull, defects);
+
+            Rect bounds = Imgproc.boundingRect(hand);
+            Point[] points = hand.toArray();
+            int[] d = defects.empty() ? new int[0] : defects.toArray();
+
+            // Each deep, sharp valley between hull points is the gap between two raised fingers.
+            int valleys = 0;
+            for (int i = 0; i + 3 < d.length; i += 4) {
+                Point start = points[d[i]];
+                Point end = points[d[i + 1]];
+                Point far = points[d[i + 2]];
+                double depth = d[i + 3] / 256.0;
+                if (depth > 0.1 * bounds.height && angle(start, far, end) < Math.PI / 2) {
+                    valleys++;
+                }
+            }
+
+            if (valleys > 0) {
+                return valleys + 1;
+            }
+            return bounds.height > 1.3 * bounds.width ? 1 : 0;
+        } catch (CvException e) {
+            return 0;
+        } finally {
+            hull.release();
+            defects.release();
+        }
+    }
+
+    private static double angle(Point start, Point far, Point end) {
+        double ax = start.x - far.x;
+        double ay = start.y - far.y;
+        double bx = end.x - far.x;
+        double by = end.y - far.y;
+        double denominator = Math.hypot(ax, ay) * Math.hypot(bx, by);
+        if (denominator == 0) {
+            return Math.PI;
+        }
+        return Math.acos(Math.max(-1.0, Math.min(1.0, (ax * bx + ay * by) / denominator)));
+    }
+
+    @Override
+    public void close() {
+        ycrcb.release();
+        mask.release();
+        hierarchy.release();
+        kernel.release();
+    }
+}
@@ -0,0 +1,13 @@
+package com.harmony.gestureharmonytoolui;
+
+public class TimelineSegment {
+    public final double start;
+    public final double end;
+    public final String degree;
+
+    public TimelineSegment(double start, double end, String degree) {
+        this.start = start;
+        this.end = end;
+        this.degree = degree;
+    }
+}
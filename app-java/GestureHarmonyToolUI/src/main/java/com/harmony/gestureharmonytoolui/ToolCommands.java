@@ -0,0 +1,56 @@
+package com.harmony.gestureharmonytoolui;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class ToolCommands {
+
+    // Overridable so headless runs can swap the real binaries for FakeTool.
+    private static volatile List<String> ffmpegCommand = fromProperty("harmony.ffmpeg", "ffmpeg");
+    private static volatile List<String> ffprobeCommand = fromProperty("harmony.ffprobe", "ffprobe");
+    private static volatile List<String> pythonCommand = fromProperty("harmony.python", "python");
+
+    public static List<String> ffmpeg(String... args) {
+        return withArgs(ffmpegCommand, args);
+    }
+
+    public static List<String> ffprobe(String... args) {
+        return withArgs(ffprobeCommand, args);
+    }
+
+    public static List<String> python(String... args) {
+        return withArgs(pythonCommand, args);
+    }
+
+    public static void overrideFfmpeg(List<String> command) {
+        ffmpegCommand = List.copyOf(command);
+    }
+
+    public static void overrideFfprobe(List<String> command) {
+        ffprobeCommand = List.copyOf(command);
+    }
+
+    public static void overridePython(List<String> command) {
+        pythonCommand = List.copyOf(command);
+    }
+
+    private static List<String> withArgs(List<String> command, String... args) {
+        List<String> full = new ArrayList<>(command);
+        full.addAll(Arrays.asList(args));
+        return full;
+    }
+
+    // The property is one executable path, which may contain spaces (C:\Program Files\...). Leading arguments,
+    // such as a script or a FakeTool class path, go in "<name>.args" and are split on whitespace.
+    private static List<String> fromProperty(String name, String defaultCommand) {
+        List<String> command = new ArrayList<>();
+        command.add(System.getProperty(name, defaultCommand).trim());
+
+        String args = System.getProperty(name + ".args", "").trim();
+        if (!args.isEmpty()) {
+            command.addAll(Arrays.asList(args.split("\\s+")));
+        }
+        return List.copyOf(command);
+    }
+}
@@ -0,0 +1,97 @@
+package com.harmony.gestureharmonytoolui;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShuffle;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.lang.foreign.MemorySegment;
+import java.nio.ByteOrder;
+
+import static java.lang.foreign.ValueLayout.JAVA_FLOAT;
+
+// Same arithmetic as ScalarMixKernel, one lane per sample, so results match it bit for bit.
+// FloatVector can only load heap segments backed by byte[], so heap segments take the scalar path.
+public class VectorMixKernel implements MixKernel {
+
+    private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+    private static final int LANES = SPECIES.length();
+    private static final long LANE_BYTES = JAVA_FLOAT.byteSize();
+    private static final ByteOrder ORDER = ByteOrder.nativeOrder();
+
+    private static final VectorShuffle<Float> INTERLEAVE_LOW = interleaveShuffle(0);
+    private static final VectorShuffle<Float> INTERLEAVE_HIGH = interleaveShuffle(LANES / 2);
+
+    private final ScalarMixKernel tail = new ScalarMixKernel();
+
+    @Override
+    public void accumulateStereo(MemorySegment src, long srcOffset,
+                                 MemorySegment left, MemorySegment right, long dstOffset,
+                                 long count, float leftGain, float rightGain) {
+        if (!src.isNative() || !left.isNative() || !right.isNative()) {
+            tail.accumulateStereo(src, srcOffset, left, right, dstOffset, count, leftGain, rightGain);
+            return;
+        }
+        long bound = SPECIES.loopBound(count);
+        for (long i = 0; i < bound; i += LANES) {
+            long s = (srcOffset + i) * LANE_BYTES;
+            long d = (dstOffset + i) * LANE_BYTES;
+            FloatVector sample = FloatVector.fromMemorySegment(SPECIES, src, s, ORDER);
+            FloatVector.fromMemorySegment(SPECIES, left, d, ORDER)
+                    .add(sample.mul(leftGain))
+                    .intoMemorySegment(left, d, ORDER);
+            FloatVector.fromMemorySegment(SPECIES, right, d, ORDER)
+                    .add(sample.mul(rightGain))
+                    .intoMemorySegment(right, d, ORDER);
+        }
+        tail.accumulateStereo(src, srcOffset + bound, left, right, dstOffset + bound,
+                count - bound, leftGain, rightGain);
+    }
+
+    @Override
+    public float peak(MemorySegment samples, long count) {
+        if (!samples.isNative()) {
+            return tail.peak(samples, count);
+        }
+        long bound = SPECIES.loopBound(count);
+        FloatVector max = FloatVector.zero(SPECIES);
+        for (long i = 0; i < bound; i += LANES) {
+            max = max.max(FloatVector.fromMemorySegment(SPECIES, samples, i * LANE_BYTES, ORDER).abs());
+        }
+
+        float peak = max.reduceLanes(VectorOperators.MAX);
+        for (long i = bound; i < count; i++) {
+            peak = Math.max(peak, Math.abs(samples.getAtIndex(JAVA_FLOAT, i)));
+        }
+        return peak;
+    }
+
+    @Override
+    public void interleave(MemorySegment left, MemorySegment right, MemorySegment out, long frames, float scale) {
+        if (!left.isNative() || !right.isNative() || !out.isNative()) {
+            tail.interleave(left, right, out, frames, scale);
+            return;
+        }
+        long bound = SPECIES.loopBound(frames);
+        for (long i = 0; i < bound; i += LANES) {
+            FloatVector l = FloatVector.fromMemorySegment(SPECIES, left, i * LANE_BYTES, ORDER).mul(scale);
+            FloatVector r = FloatVector.fromMemorySegment(SPECIES, right, i * LANE_BYTES, ORDER).mul(scale);
+            long o = 2 * i * LANE_BYTES;
+            l.rearrange(INTERLEAVE_LOW, r).intoMemorySegment(out, o, ORDER);
+            l.rearrange(INTERLEAVE_HIGH, r).intoMemorySegment(out, o + LANES * LANE_BYTES, ORDER);
+        }
+        for (long i = bound; i < frames; i++) {
+            out.setAtIndex(JAVA_FLOAT, 2 * i, left.getAtIndex(JAVA_FLOAT, i) * scale);
+            out.setAtIndex(JAVA_FLOAT, 2 * i + 1, right.getAtIndex(JAVA_FLOAT, i) * scale);
+        }
+    }
+
+    // Even output lanes take from this vector, odd lanes from the second one (negative = second vector).
+    private static VectorShuffle<Float> interleaveShuffle(int base) {
+        int[] indexes = new int[LANES];
+        for (int j = 0; j < LANES; j++) {
+            indexes[j] = j % 2 == 0 ? base + j / 2 : base + j / 2 - LANES;
+        }
+        return VectorShuffle.fromArray(SPECIES, indexes, 0);
+    }
+}
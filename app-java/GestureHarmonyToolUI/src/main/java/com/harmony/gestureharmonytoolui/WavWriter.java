@@ -0,0 +1,108 @@
+package com.harmony.gestureharmonytoolui;
+
+import java.io.IOException;
+import java.lang.foreign.MemorySegment;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static java.lang.foreign.ValueLayout.JAVA_FLOAT;
+
+public class WavWriter {
+
+    private static final int CHUNK_FRAMES = 64 * 1024;
+
+    // Writes interleaved float samples in [-1, 1] as 16-bit PCM, streaming in fixed-size chunks.
+    public static void writePcm16(Path path, MemorySegment interleaved, long frames, int channels, int sampleRate)
+            throws IOException {
+        if (frames * channels * 2 > 0xFFFFFFFFL - 36) {
+            throw new IOException("Audio too long for a RIFF WAV file: " + frames + " frames");
+        }
+
+        try (PcmStream out = new PcmStream(path, channels, sampleRate)) {
+            out.writeFloats(interleaved, frames * channels);
+        }
+    }
+
+    // Appends PCM16 as it arrives, either already encoded or quantized from floats, and fills in the RIFF sizes on close.
+    public static class PcmStream implements AutoCloseable {
+        private final FileChannel channel;
+        private final int channels;
+        private final int sampleRate;
+        private long dataBytes;
+        private float[] floatChunk;
+        private byte[] byteChunk;
+
+        public PcmStream(Path path, int channels, int sampleRate) throws IOException {
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+            this.channels = channels;
+            this.sampleRate = sampleRate;
+            channel.write(header(0, channels, sampleRate));
+        }
+
+        public void write(byte[] buffer, int offset, int length) throws IOException {
+            if (dataBytes + length > 0xFFFFFFFFL - 36) {
+                throw new IOException("Audio too long for a RIFF WAV file: " + (dataBytes + length) + " bytes");
+            }
+            ByteBuffer data = ByteBuffer.wrap(buffer, offset, length);
+            while (data.hasRemaining()) {
+                channel.write(data);
+            }
+            dataBytes += length;
+        }
+
+        // Quantizes interleaved float samples in [-1, 1] a chunk at a time; the chunk buffers are reused across calls.
+        public void writeFloats(MemorySegment interleaved, long samples) throws IOException {
+            if (floatChunk == null) {
+                floatChunk = new float[CHUNK_FRAMES * channels];
+                byteChunk = new byte[floatChunk.length * 2];
+            }
+
+            for (long offset = 0; offset < samples; ) {
+                int count = (int) Math.min(floatChunk.length, samples - offset);
+                MemorySegment.copy(interleaved, JAVA_FLOAT, offset * JAVA_FLOAT.byteSize(), floatChunk, 0, count);
+                for (int i = 0; i < count; i++) {
+                    float sample = Math.max(-1.0f, Math.min(1.0f, floatChunk[i]));
+                    short pcm = (short) Math.round(sample * 32767.0f);
+                    byteChunk[2 * i] = (byte) pcm;
+                    byteChunk[2 * i + 1] = (byte) (pcm >> 8);
+                }
+                write(byteChunk, 0, count * 2);
+                offset += count;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            try (channel) {
+                ByteBuffer header = header(dataBytes, channels, sampleRate);
+                long position = 0;
+                while (header.hasRemaining()) {
+                    position += channel.write(header, position);
+                }
+            }
+        }
+    }
+
+    static ByteBuffer header(long dataBytes, int channels, int sampleRate) {
+        ByteBuffer header = ByteBuffer.allocate(44).order(ByteOrder.LITTLE_ENDIAN);
+        header.put("RIFF".getBytes(StandardCharsets.US_ASCII));
+        header.putInt((int) (36 + dataBytes));
+        header.put("WAVEfmt ".getBytes(StandardCharsets.US_ASCII));
+        header.putInt(16);
+        header.putShort((short) 1);
+        header.putShort((short) channels);
+        header.putInt(sampleRate);
+        header.putInt(sampleRate * channels * 2);
+        header.putShort((short) (channels * 2));
+        header.putShort((short) 16);
+        header.put("data".getBytes(StandardCharsets.US_ASCII));
+        header.putInt((int) dataBytes);
+        header.flip();
+        return header;
+    }
+}
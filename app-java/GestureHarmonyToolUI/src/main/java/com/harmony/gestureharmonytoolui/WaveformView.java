@@ -0,0 +1,239 @@
+package com.harmony.gestureharmonytoolui;
+
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+
+import java.util.List;
+import java.util.Locale;
+
+// Draws a SessionOverview at any zoom: each redraw reads one pyramid level sized to the current zoom, so the cost
+// depends on the canvas width and not on the length of the take. Wheel zooms around the cursor, drag scrolls.
+public final class WaveformView extends Canvas {
+
+    private static final double TIMELINE_HEIGHT = 18.0;
+    private static final double ZOOM_STEP = 1.25;
+    private static final double MIN_PITCH = 36.0;
+    private static final double MAX_PITCH = 84.0;
+
+    private SessionOverview overview;
+    private double viewStartSeconds;
+    private double secondsPerPixel = 1.0;
+    private double dragStartX;
+    private double dragStartSeconds;
+
+    public WaveformView() {
+        widthProperty().addListener(observable -> {
+            clampView();
+            redraw();
+        });
+        heightProperty().addListener(observable -> redraw());
+
+        setOnScroll(event -> {
+            if (overview == null || event.getDeltaY() == 0) {
+                return;
+            }
+            double anchorSeconds = viewStartSeconds + event.getX() * secondsPerPixel;
+            secondsPerPixel *= event.getDeltaY() > 0 ? 1.0 / ZOOM_STEP : ZOOM_STEP;
+            clampZoom();
+            viewStartSeconds = anchorSeconds - event.getX() * secondsPerPixel;
+            clampView();
+            redraw();
+        });
+        setOnMousePressed(event -> {
+            dragStartX = event.getX();
+            dragStartSeconds = viewStartSeconds;
+        });
+        setOnMouseDragged(event -> {
+            if (overview == null) {
+                return;
+            }
+            viewStartSeconds = dragStartSeconds - (event.getX() - dragStartX) * secondsPerPixel;
+            clampView();
+            redraw();
+        });
+    }
+
+    public void setOverview(SessionOverview overview) {
+        this.overview = overview;
+        viewStartSeconds = 0;
+        secondsPerPixel = Double.MAX_VALUE;
+        clampZoom();
+        redraw();
+    }
+
+    @Override
+    public boolean isResizable() {
+        return true;
+    }
+
+    @Override
+    public double prefWidth(double height) {
+        return getWidth();
+    }
+
+    @Override
+    public double prefHeight(double width) {
+        return getHeight();
+    }
+
+    // Zoom stops at a quarter of the finest block per pixel and at the whole take across the canvas.
+    private void clampZoom() {
+        if (overview == null || getWidth() <= 0) {
+            return;
+        }
+        double min = overview.getBlockSamples(0) / 4.0 / overview.getSampleRate();
+        double max = Math.max(min, overview.getDurationSeconds() / getWidth());
+        secondsPerPixel = Math.max(min, Math.min(max, secondsPerPixel));
+    }
+
+    private void clampView() {
+        if (overview == null) {
+            return;
+        }
+        clampZoom();
+        double maxStart = Math.max(0, overview.getDurationSeconds() - getWidth() * secondsPerPixel);
+        viewStartSeconds = Math.max(0, Math.min(maxStart, viewStartSeconds));
+    }
+
+    private void redraw() {
+        GraphicsContext g = getGraphicsContext2D();
+        double width = getWidth();
+        double height = getHeight();
+        g.setFill(Color.rgb(15, 23, 42));
+        g.fillRect(0, 0, width, height);
+        if (overview == null || width <= 0 || height <= TIMELINE_HEIGHT) {
+            return;
+        }
+
+        drawTimeline(g, width);
+        drawPeaks(g, width, height);
+        drawPitch(g, width, height);
+
+        g.setFill(Color.rgb(148, 163, 184));
+        g.fillText(formatTime(viewStartSeconds), 4, height - 4);
+        String end = formatTime(viewStartSeconds + width * secondsPerPixel);
+        g.fillText(end, width - 7 * end.length() - 4, height - 4);
+    }
+
+    private void drawPeaks(GraphicsContext g, double width, double height) {
+        double samplesPerPixel = secondsPerPixel * overview.getSampleRate();
+        int level = overview.levelForSamplesPerPixel(samplesPerPixel);
+        short[] mins = overview.getMins(level);
+        short[] maxs = overview.getMaxs(level);
+        double blockSamples = overview.getBlockSamples(level);
+
+        double top = TIMELINE_HEIGHT;
+        double mid = top + (height - top) / 2.0;
+        double scale = (height - top) / 2.0 / 32768.0;
+
+        g.setStroke(Color.rgb(56, 189, 248));
+        g.setLineWidth(1.0);
+        double startSample = viewStartSeconds * overview.getSampleRate();
+        for (int x = 0; x < (int) width; x++) {
+            double s0 = startSample + x * samplesPerPixel;
+            int b0 = (int) (s0 / blockSamples);
+            int b1 = Math.min(mins.length, Math.max(b0 + 1, (int) Math.ceil((s0 + samplesPerPixel) / blockSamples)));
+            if (b0 >= mins.length) {
+                break;
+            }
+
+            int min = Short.MAX_VALUE;
+            int max = Short.MIN_VALUE;
+            for (int b = b0; b < b1; b++) {
+                min = Math.min(min, mins[b]);
+                max = Math.max(max, maxs[b]);
+            }
+            g.strokeLine(x + 0.5, mid - max * scale, x + 0.5, mid - min * scale);
+        }
+    }
+
+    private void drawPitch(GraphicsContext g, double width, double height) {
+        float[] pitch = overview.getPitchMidi();
+        if (pitch.length == 0) {
+            return;
+        }
+
+        double top = TIMELINE_HEIGHT + 4;
+        double span = height - top - 4;
+        g.setStroke(Color.rgb(250, 204, 21));
+        g.setLineWidth(1.5);
+        g.beginPath();
+        boolean drawing = false;
+        for (int x = 0; x < (int) width; x++) {
+            int index = (int) ((viewStartSeconds + x * secondsPerPixel) / SessionOverview.PITCH_STEP_SECONDS);
+            if (index >= pitch.length) {
+                break;
+            }
+            float midi = pitch[index];
+            if (Float.isNaN(midi)) {
+                drawing = false;
+                continue;
+            }
+            double clamped = Math.max(MIN_PITCH, Math.min(MAX_PITCH, midi));
+            double y = top + span * (1.0 - (clamped - MIN_PITCH) / (MAX_PITCH - MIN_PITCH));
+            if (drawing) {
+                g.lineTo(x + 0.5, y);
+            } else {
+                g.moveTo(x + 0.5, y);
+                drawing = true;
+            }
+        }
+        g.stroke();
+    }
+
+    // Segments are sorted and non-overlapping, so ends are sorted too. After drawing a segment, binary search past
+    // every segment that ends within the pixel just drawn: at most one segment per pixel is visited.
+    private void drawTimeline(GraphicsContext g, double width) {
+        List<TimelineSegment> timeline = overview.getTimeline();
+        double viewEnd = viewStartSeconds + width * secondsPerPixel;
+
+        int i = firstEndingAfter(timeline, viewStartSeconds, 0);
+        while (i < timeline.size()) {
+            TimelineSegment segment = timeline.get(i);
+            if (segment.start >= viewEnd) {
+                break;
+            }
+            double x0 = Math.max(0, (segment.start - viewStartSeconds) / secondsPerPixel);
+            double x1 = Math.min(width, (segment.end - viewStartSeconds) / secondsPerPixel);
+
+            g.setFill(degreeColor(segment.degree));
+            g.fillRect(x0, 0, Math.max(1, x1 - x0), TIMELINE_HEIGHT - 2);
+            if (x1 - x0 > 24) {
+                g.setFill(Color.rgb(15, 23, 42));
+                g.fillText(segment.degree, x0 + 4, TIMELINE_HEIGHT - 5);
+            }
+
+            double nextPixelSeconds = viewStartSeconds + (Math.floor(x1) + 1) * secondsPerPixel;
+            i = firstEndingAfter(timeline, nextPixelSeconds, i + 1);
+        }
+    }
+
+    private static int firstEndingAfter(List<TimelineSegment> timeline, double seconds, int from) {
+        int lo = from;
+        int hi = timeline.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (timeline.get(mid).end <= seconds) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private static Color degreeColor(String degree) {
+        return switch (degree) {
+            case "I" -> Color.rgb(74, 222, 128);
+            case "II" -> Color.rgb(192, 132, 252);
+            case "IV" -> Color.rgb(251, 146, 60);
+            default -> Color.rgb(100, 116, 139);
+        };
+    }
+
+    private static String formatTime(double seconds) {
+        long millis = Math.round(seconds * 1000);
+        return String.format(Locale.ROOT, "%d:%02d.%03d", millis / 60_000, (millis / 1000) % 60, millis % 1000);
+    }
+}
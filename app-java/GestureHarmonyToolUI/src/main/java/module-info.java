@@ -4,6 +4,7 @@ module com.harmony.gestureharmonytoolui {
     requires javafx.swing;
     requires java.desktop;
     requires opencv;
+    requires static jdk.incubator.vector;
 
     opens com.harmony.gestureharmonytoolui to javafx.fxml;
     exports com.harmony.gestureharmonytoolui;
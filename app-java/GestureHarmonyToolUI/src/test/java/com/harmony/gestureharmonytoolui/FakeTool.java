@@ -0,0 +1,241 @@
+package com.harmony.gestureharmonytoolui;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static java.lang.foreign.ValueLayout.JAVA_FLOAT;
+
+// Stand-in for the ffmpeg, ffprobe and python child processes so the pipeline can run without DirectShow or Python.
+public class FakeTool {
+
+    private static final int SAMPLE_RATE = 44100;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            System.out.println("Usage: FakeTool ffmpeg|python <args...>");
+            System.exit(2);
+        }
+
+        List<String> toolArgs = Arrays.asList(args).subList(1, args.length);
+        int exitCode = switch (args[0]) {
+            case "ffmpeg" -> fakeFfmpeg(toolArgs);
+            case "ffprobe" -> fakeFfprobe(toolArgs);
+            case "python" -> fakePython(toolArgs);
+            default -> 2;
+        };
+        System.exit(exitCode);
+    }
+
+    // Runs this class as the given tool in a child JVM on the current class (or module) path.
+    static List<String> command(String tool, String... jvmOptions) {
+        List<String> command = new ArrayList<>();
+        command.add(ProcessHandle.current().info().command().orElse("java"));
+        command.addAll(Arrays.asList(jvmOptions));
+        // The harmony mix runs in the child, so it needs the incubator module to pick VectorMixKernel.
+        command.add("--add-modules");
+        command.add("jdk.incubator.vector");
+
+        String modulePath = System.getProperty("jdk.module.path");
+        if (modulePath != null && !modulePath.isEmpty()) {
+            command.add("-p");
+            command.add(modulePath);
+            command.add("-m");
+            command.add("com.harmony.gestureharmonytoolui/" + FakeTool.class.getName());
+        } else {
+            command.add("-cp");
+            command.add(System.getProperty("java.class.path"));
+            command.add(FakeTool.class.getName());
+        }
+
+        command.add(tool);
+        return command;
+    }
+
+    private static int fakeFfmpeg(List<String> args) throws IOException, InterruptedException {
+        if (args.contains("-list_devices")) {
+            System.out.println("[dshow @ fake] \"Synthetic Camera\" (video)");
+            System.out.println("[dshow @ fake]   Alternative name \"@fake_video_0\"");
+            System.out.println("[dshow @ fake] \"Synthetic Microphone\" (audio)");
+            System.out.println("[dshow @ fake]   Alternative name \"@fake_audio_0\"");
+            return 1;
+        }
+
+        String outputArg = args.get(args.size() - 1);
+
+        if (args.contains("dshow")) {
+            Path output = Path.of(outputArg);
+            long started = System.nanoTime();
+            BufferedReader stdin = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+            String line;
+            while ((line = stdin.readLine()) != null && !line.trim().equals("q")) {
+                // Keep recording until ffmpeg's interactive quit command arrives.
+            }
+            double seconds = (System.nanoTime() - started) / 1_000_000_000.0;
+            Files.writeString(output, "FAKE-VIDEO seconds=" + seconds);
+            System.out.println("fake recording finished: " + output);
+            return 0;
+        }
+
+        Path input = Path.of(args.get(args.indexOf("-i") + 1));
+        if (!Files.exists(input)) {
+            System.out.println(input + ": No such file or directory");
+            return 1;
+        }
+
+        simulateWork();
+        if (outputArg.equals("pipe:1")) {
+            // Raw s16le on stdout, so progress goes to stderr like the real ffmpeg.
+            writeSinePcm(System.out, readFakeSeconds(input));
+            System.err.println("fake extract finished: " + outputArg);
+            return 0;
+        }
+
+        Path output = Path.of(outputArg);
+        if (output.toString().endsWith(".mp4")) {
+            // Stream-copy mux: the fake video placeholder carries over unchanged.
+            Files.copy(input, output, StandardCopyOption.REPLACE_EXISTING);
+            System.out.println("fake mux finished: " + output);
+            return 0;
+        }
+
+        writeSineWav(output, readFakeSeconds(input), 1);
+        System.out.println("fake extract finished: " + output);
+        return 0;
+    }
+
+    private static int fakeFfprobe(List<String> args) {
+        Path input = Path.of(args.get(args.size() - 1));
+        if (!Files.exists(input)) {
+            System.out.println(input + ": No such file or directory");
+            return 1;
+        }
+        // -Dharmony.fake.startTimes=v:0=0.35,a:0=0.12 lets checks probe unequal stream start times.
+        String stream = args.get(args.indexOf("-select_streams") + 1);
+        for (String entry : System.getProperty("harmony.fake.startTimes", "").split(",")) {
+            int at = entry.lastIndexOf('=');
+            if (at > 0 && entry.substring(0, at).trim().equals(stream)) {
+                System.out.println(entry.substring(at + 1).trim());
+                return 0;
+            }
+        }
+        System.out.println("0.000000");
+        return 0;
+    }
+
+    private static int fakePython(List<String> args) throws IOException, InterruptedException {
+        if (args.size() < 2) {
+            return 2;
+        }
+
+        String script = args.get(0);
+        Path session = Path.of(args.get(1));
+        simulateWork();
+
+        if (script.endsWith("live_gesture.py")) {
+            Path timeline = session.resolve("timeline.json");
+            Files.writeString(timeline, "[\n  {\"start\": 0.0, \"end\": 0.5, \"degree\": \"I\"}\n]");
+            System.out.println("Saved timeline: " + timeline);
+            return 0;
+        }
+
+        if (script.endsWith("harmonize_audio.py")) {
+            Path audio = session.resolve("output.wav");
+            if (!Files.exists(audio)) {
+                System.out.println("Missing output.wav: " + audio);
+                return 1;
+            }
+            Path out = session.resolve("harmonized_enhanced.wav");
+            double seconds = (Files.size(audio) - 44) / 2.0 / SAMPLE_RATE;
+            writeHarmonyWav(out, seconds);
+            writePitchContour(session.resolve("pitch.json"), seconds);
+            System.out.println("HARMONY EXPORTED TO: " + out);
+            return 0;
+        }
+
+        System.out.println("Unknown script: " + script);
+        return 1;
+    }
+
+    private static void simulateWork() throws InterruptedException {
+        long delayMs = Long.getLong("harmony.fake.delayMs", 0);
+        if (delayMs > 0) {
+            Thread.sleep(delayMs);
+        }
+    }
+
+    private static double readFakeSeconds(Path input) throws IOException {
+        double maxSeconds = Double.parseDouble(System.getProperty("harmony.fake.maxSeconds", "60"));
+        String text = new String(Files.readAllBytes(input), StandardCharsets.UTF_8);
+        int at = text.indexOf("seconds=");
+        if (!text.startsWith("FAKE-VIDEO") || at < 0) {
+            return 1.0;
+        }
+        return Math.min(maxSeconds, Double.parseDouble(text.substring(at + "seconds=".length()).trim()));
+    }
+
+    private static void writeSinePcm(OutputStream out, double seconds) throws IOException {
+        long frames = (long) (seconds * SAMPLE_RATE);
+        BufferedOutputStream pcm = new BufferedOutputStream(out, 64 * 1024);
+        for (long i = 0; i < frames; i++) {
+            short sample = (short) Math.round(Math.sin(2 * Math.PI * 220.0 * i / SAMPLE_RATE) * 0.25 * 32767.0);
+            pcm.write(sample & 0xFF);
+            pcm.write((sample >> 8) & 0xFF);
+        }
+        pcm.flush();
+    }
+
+    private static void writeSineWav(Path path, double seconds, int channels) throws IOException {
+        long frames = (long) (seconds * SAMPLE_RATE);
+
+        try (Arena arena = Arena.ofConfined()) {
+            MemorySegment samples = arena.allocate(JAVA_FLOAT, Math.max(1, frames * channels));
+            for (long i = 0; i < frames; i++) {
+                float sample = (float) (Math.sin(2 * Math.PI * 220.0 * i / SAMPLE_RATE) * 0.25);
+                for (int c = 0; c < channels; c++) {
+                    samples.setAtIndex(JAVA_FLOAT, i * channels + c, sample);
+                }
+            }
+            WavWriter.writePcm16(path, samples, frames, channels, SAMPLE_RATE);
+        }
+    }
+
+    private static void writePitchContour(Path path, double seconds) throws IOException {
+        double hopSeconds = 512.0 / SAMPLE_RATE;
+        StringBuilder midi = new StringBuilder();
+        for (long i = 0; i < (long) (seconds / hopSeconds); i++) {
+            midi.append(i == 0 ? "" : ", ").append(i % 40 < 30 ? "57.0" : "null");
+        }
+        Files.writeString(path, "{\"hop_seconds\": " + hopSeconds + ", \"midi\": [" + midi + "]}");
+    }
+
+    private static void writeHarmonyWav(Path path, double seconds) throws IOException {
+        long frames = (long) (seconds * SAMPLE_RATE);
+
+        try (MixBus bus = new MixBus(Math.max(1, frames))) {
+            double[] ratios = {1.0, 1.25, 1.5};
+            float[] pans = {0.0f, -0.6f, 0.6f};
+            MemorySegment voice = bus.allocateMono(bus.getFrames());
+            for (int v = 0; v < ratios.length; v++) {
+                for (long i = 0; i < frames; i++) {
+                    voice.setAtIndex(JAVA_FLOAT, i, (float) Math.sin(2 * Math.PI * 220.0 * ratios[v] * i / SAMPLE_RATE));
+                }
+                bus.addVoice(voice, 0, frames, pans[v], 0.5f);
+            }
+            try (WavWriter.PcmStream out = new WavWriter.PcmStream(path, 2, SAMPLE_RATE)) {
+                bus.mixdown(out);
+            }
+        }
+    }
+}
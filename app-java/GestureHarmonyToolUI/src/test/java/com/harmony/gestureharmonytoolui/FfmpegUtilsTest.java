@@ -0,0 +1,69 @@
+package com.harmony.gestureharmonytoolui;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FfmpegUtilsTest {
+
+    @TempDir
+    Path session;
+
+    private List<String> previousFfprobe;
+
+    @BeforeEach
+    void saveTools() {
+        previousFfprobe = ToolCommands.ffprobe();
+    }
+
+    @AfterEach
+    void restoreTools() {
+        ToolCommands.overrideFfprobe(previousFfprobe);
+    }
+
+    @Test
+    void harmonyStaysAtZeroWhenAudioStartsFirst() {
+        // ffmpeg rebases video.mp4 to the audio start, so the copied video already sits at v0 - a0.
+        assertEquals(0.0, FfmpegUtils.harmonyOffset(0.120, 0.350), 1e-9);
+    }
+
+    @Test
+    void harmonyIsDelayedWhenVideoStartsFirst() {
+        assertEquals(0.230, FfmpegUtils.harmonyOffset(0.350, 0.120), 1e-9);
+        assertEquals(0.0, FfmpegUtils.harmonyOffset(0.5, 0.5), 1e-9);
+    }
+
+    @Test
+    void probesUnequalStreamStartTimes() throws IOException {
+        Path video = Files.writeString(session.resolve("video.mp4"), "FAKE-VIDEO seconds=1.0");
+        ToolCommands.overrideFfprobe(FakeTool.command("ffprobe", "-Dharmony.fake.startTimes=v:0=0.350,a:0=0.120"));
+
+        FfmpegUtils ffmpeg = new FfmpegUtils();
+        double audioStart = ffmpeg.probeStartTime(video.toString(), "a:0");
+        double videoStart = ffmpeg.probeStartTime(video.toString(), "v:0");
+
+        assertEquals(0.120, audioStart, 1e-9);
+        assertEquals(0.350, videoStart, 1e-9);
+        assertEquals(0.0, FfmpegUtils.harmonyOffset(audioStart, videoStart), 1e-9);
+    }
+
+    @Test
+    void unknownStartTimeIsNaN() throws IOException {
+        Path video = Files.writeString(session.resolve("video.mp4"), "FAKE-VIDEO seconds=1.0");
+        ToolCommands.overrideFfprobe(FakeTool.command("ffprobe", "-Dharmony.fake.startTimes=a:0=N/A"));
+
+        FfmpegUtils ffmpeg = new FfmpegUtils();
+
+        assertTrue(Double.isNaN(ffmpeg.probeStartTime(video.toString(), "a:0")));
+        assertTrue(Double.isNaN(ffmpeg.probeStartTime(session.resolve("missing.mp4").toString(), "v:0")));
+    }
+}
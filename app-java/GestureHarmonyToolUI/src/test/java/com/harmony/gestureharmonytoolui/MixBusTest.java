@@ -0,0 +1,79 @@
+package com.harmony.gestureharmonytoolui;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.lang.foreign.MemorySegment;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static java.lang.foreign.ValueLayout.JAVA_FLOAT;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MixBusTest {
+
+    // Crosses two mixdown blocks and ends in a partial one.
+    private static final int FRAMES = 2 * 64 * 1024 + 37;
+    private static final int SAMPLE_RATE = 44100;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void streamedMixdownMatchesFullLengthReference() throws IOException {
+        float[] first = tone(220.0, 0.9f);
+        float[] second = tone(330.0, 0.8f);
+        Path streamed = dir.resolve("streamed.wav");
+
+        try (MixBus bus = new MixBus(FRAMES);
+             WavWriter.PcmStream out = new WavWriter.PcmStream(streamed, 2, SAMPLE_RATE)) {
+            MemorySegment voice = bus.allocateMono(FRAMES);
+            MemorySegment.copy(first, 0, voice, JAVA_FLOAT, 0, FRAMES);
+            bus.addVoice(voice, 0, FRAMES, -0.4f, 1.0f);
+            // Heap-backed voice, starting late so it is clipped at the end of the bus.
+            bus.addVoice(MemorySegment.ofArray(second), 1000, FRAMES, 0.6f, 0.9f);
+            bus.mixdown(out);
+        }
+
+        Path reference = dir.resolve("reference.wav");
+        WavWriter.writePcm16(reference, referenceMix(first, second), FRAMES, 2, SAMPLE_RATE);
+
+        byte[] expected = Files.readAllBytes(reference);
+        byte[] actual = Files.readAllBytes(streamed);
+        assertEquals(44 + FRAMES * 4L, actual.length);
+        assertArrayEquals(expected, actual);
+    }
+
+    // Same pan law and normalization as MixBus, computed over full-length buffers with the scalar kernel.
+    private static MemorySegment referenceMix(float[] first, float[] second) {
+        MixKernel kernel = new ScalarMixKernel();
+        MemorySegment left = MemorySegment.ofArray(new float[FRAMES]);
+        MemorySegment right = MemorySegment.ofArray(new float[FRAMES]);
+        accumulate(kernel, first, 0, FRAMES, -0.4f, 1.0f, left, right);
+        accumulate(kernel, second, 1000, FRAMES - 1000, 0.6f, 0.9f, left, right);
+
+        float peak = Math.max(kernel.peak(left, FRAMES), kernel.peak(right, FRAMES));
+        float scale = peak > MixBus.NORMALIZE_THRESHOLD ? MixBus.NORMALIZE_TARGET / peak : 1.0f;
+        MemorySegment out = MemorySegment.ofArray(new float[FRAMES * 2]);
+        kernel.interleave(left, right, out, FRAMES, scale);
+        return out;
+    }
+
+    private static void accumulate(MixKernel kernel, float[] mono, long start, long count, float pan, float gain,
+                                   MemorySegment left, MemorySegment right) {
+        double angle = (pan + 1.0) * (Math.PI / 4.0);
+        kernel.accumulateStereo(MemorySegment.ofArray(Arrays.copyOf(mono, (int) count)), 0, left, right, start, count,
+                (float) (Math.cos(angle) * gain), (float) (Math.sin(angle) * gain));
+    }
+
+    private static float[] tone(double hz, float amplitude) {
+        float[] samples = new float[FRAMES];
+        for (int i = 0; i < FRAMES; i++) {
+            samples[i] = (float) (Math.sin(2 * Math.PI * hz * i / SAMPLE_RATE) * amplitude);
+        }
+        return samples;
+    }
+}
@@ -0,0 +1,128 @@
+package com.harmony.gestureharmonytoolui;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.util.Random;
+
+import static java.lang.foreign.ValueLayout.JAVA_FLOAT;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// MixKernel promises bit-identical output, so compare raw float bits rather than using a tolerance.
+class MixKernelParityTest {
+
+    // Odd lengths so every vector species leaves a scalar tail.
+    private static final int[] LENGTHS = {1, 3, 7, 15, 17, 63, 1001, 4099};
+
+    private final MixKernel scalar = new ScalarMixKernel();
+    private final MixKernel vector = new VectorMixKernel();
+
+    @Test
+    void accumulateStereoMatchesAcrossVoices() {
+        Random random = new Random(26);
+        for (int frames : LENGTHS) {
+            try (Arena arena = Arena.ofConfined()) {
+                MemorySegment scalarLeft = arena.allocate(JAVA_FLOAT, frames);
+                MemorySegment scalarRight = arena.allocate(JAVA_FLOAT, frames);
+                MemorySegment vectorLeft = arena.allocate(JAVA_FLOAT, frames);
+                MemorySegment vectorRight = arena.allocate(JAVA_FLOAT, frames);
+
+                for (int voice = 0; voice < 5; voice++) {
+                    int dstOffset = random.nextInt(frames);
+                    int count = 1 + random.nextInt(frames - dstOffset);
+                    int srcOffset = random.nextInt(5);
+                    MemorySegment src = randomSamples(arena, random, srcOffset + count);
+                    float leftGain = random.nextFloat() * 1.5f;
+                    float rightGain = random.nextFloat() * 1.5f;
+
+                    scalar.accumulateStereo(src, srcOffset, scalarLeft, scalarRight, dstOffset, count, leftGain, rightGain);
+                    vector.accumulateStereo(src, srcOffset, vectorLeft, vectorRight, dstOffset, count, leftGain, rightGain);
+                }
+
+                assertBitsEqual(scalarLeft, vectorLeft, frames, "left, frames=" + frames);
+                assertBitsEqual(scalarRight, vectorRight, frames, "right, frames=" + frames);
+            }
+        }
+    }
+
+    @Test
+    void peakMatches() {
+        Random random = new Random(27);
+        for (int frames : LENGTHS) {
+            try (Arena arena = Arena.ofConfined()) {
+                MemorySegment samples = randomSamples(arena, random, frames);
+                // Put the loudest sample in the tail on some lengths.
+                samples.setAtIndex(JAVA_FLOAT, frames - 1, frames % 2 == 0 ? 1.75f : -1.75f);
+
+                assertEquals(Float.floatToRawIntBits(scalar.peak(samples, frames)),
+                        Float.floatToRawIntBits(vector.peak(samples, frames)), "frames=" + frames);
+            }
+        }
+    }
+
+    @Test
+    void interleaveMatches() {
+        Random random = new Random(28);
+        for (int frames : LENGTHS) {
+            try (Arena arena = Arena.ofConfined()) {
+                MemorySegment left = randomSamples(arena, random, frames);
+                MemorySegment right = randomSamples(arena, random, frames);
+                MemorySegment scalarOut = arena.allocate(JAVA_FLOAT, frames * 2L);
+                MemorySegment vectorOut = arena.allocate(JAVA_FLOAT, frames * 2L);
+                float scale = 0.944f / 1.3f;
+
+                scalar.interleave(left, right, scalarOut, frames, scale);
+                vector.interleave(left, right, vectorOut, frames, scale);
+
+                assertBitsEqual(scalarOut, vectorOut, frames * 2L, "frames=" + frames);
+            }
+        }
+    }
+
+    // MixBus.addVoice accepts any segment, so float[]-backed voices must work with both kernels.
+    @Test
+    void heapSegmentsMatch() {
+        Random random = new Random(29);
+        for (int frames : LENGTHS) {
+            float[] src = new float[frames];
+            for (int i = 0; i < frames; i++) {
+                src[i] = random.nextFloat() * 2.0f - 1.0f;
+            }
+            MemorySegment voice = MemorySegment.ofArray(src);
+
+            MemorySegment scalarLeft = MemorySegment.ofArray(new float[frames]);
+            MemorySegment scalarRight = MemorySegment.ofArray(new float[frames]);
+            MemorySegment vectorLeft = MemorySegment.ofArray(new float[frames]);
+            MemorySegment vectorRight = MemorySegment.ofArray(new float[frames]);
+            scalar.accumulateStereo(voice, 0, scalarLeft, scalarRight, 0, frames, 0.7f, 0.4f);
+            vector.accumulateStereo(voice, 0, vectorLeft, vectorRight, 0, frames, 0.7f, 0.4f);
+            assertBitsEqual(scalarLeft, vectorLeft, frames, "heap left, frames=" + frames);
+            assertBitsEqual(scalarRight, vectorRight, frames, "heap right, frames=" + frames);
+
+            assertEquals(Float.floatToRawIntBits(scalar.peak(voice, frames)),
+                    Float.floatToRawIntBits(vector.peak(voice, frames)), "heap peak, frames=" + frames);
+
+            MemorySegment scalarOut = MemorySegment.ofArray(new float[frames * 2]);
+            MemorySegment vectorOut = MemorySegment.ofArray(new float[frames * 2]);
+            scalar.interleave(scalarLeft, scalarRight, scalarOut, frames, 0.9f);
+            vector.interleave(vectorLeft, vectorRight, vectorOut, frames, 0.9f);
+            assertBitsEqual(scalarOut, vectorOut, frames * 2L, "heap interleave, frames=" + frames);
+        }
+    }
+
+    private static MemorySegment randomSamples(Arena arena, Random random, long count) {
+        MemorySegment samples = arena.allocate(JAVA_FLOAT, count);
+        for (long i = 0; i < count; i++) {
+            samples.setAtIndex(JAVA_FLOAT, i, random.nextFloat() * 2.0f - 1.0f);
+        }
+        return samples;
+    }
+
+    private static void assertBitsEqual(MemorySegment expected, MemorySegment actual, long count, String label) {
+        for (long i = 0; i < count; i++) {
+            assertEquals(Float.floatToRawIntBits(expected.getAtIndex(JAVA_FLOAT, i)),
+                    Float.floatToRawIntBits(actual.getAtIndex(JAVA_FLOAT, i)), label + " at " + i);
+        }
+    }
+}
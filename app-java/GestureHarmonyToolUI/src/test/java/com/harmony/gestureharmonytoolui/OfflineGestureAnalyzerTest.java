@@ -0,0 +1,132 @@
+package com.harmony.gestureharmonytoolui;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.Scalar;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+// Expected timelines come from running compress_segments in live_gesture.py on the same frames at 30 fps.
+class OfflineGestureAnalyzerTest {
+
+    private static final double FPS = 30.0;
+
+    private final List<Mat> frames = new ArrayList<>();
+
+    @BeforeAll
+    static void loadOpenCv() {
+        assumeTrue(OpenCvLoader.load(), "OpenCV natives unavailable");
+    }
+
+    @AfterEach
+    void releaseFrames() {
+        frames.forEach(Mat::release);
+    }
+
+    @Test
+    void noneBlipAtMergeGapSplitsRuns() {
+        // 5 frames = 0.167 s: at least MERGE_GAP_SECONDS, below MIN_SEGMENT_SECONDS.
+        List<TimelineSegment> timeline = OfflineGestureAnalyzer.compressSegments(List.of(
+                raw(0, 30, "I"), raw(30, 35, "NONE"), raw(35, 90, "I")), FPS);
+
+        assertTimeline(timeline, seg(0.0, 1.0, "I"), seg(1.167, 3.0, "I"));
+    }
+
+    @Test
+    void noneBlipBelowMergeGapMerges() {
+        List<TimelineSegment> timeline = OfflineGestureAnalyzer.compressSegments(List.of(
+                raw(0, 30, "I"), raw(30, 34, "NONE"), raw(34, 90, "I")), FPS);
+
+        assertTimeline(timeline, seg(0.0, 3.0, "I"));
+    }
+
+    @Test
+    void shortOtherDegreeBlipSplitsRunsAndIsDropped() {
+        List<TimelineSegment> timeline = OfflineGestureAnalyzer.compressSegments(List.of(
+                raw(0, 30, "I"), raw(30, 32, "II"), raw(32, 90, "I")), FPS);
+
+        assertTimeline(timeline, seg(0.0, 1.0, "I"), seg(1.067, 3.0, "I"));
+    }
+
+    @Test
+    void segmentsShorterThanMinimumAreDropped() {
+        List<TimelineSegment> timeline = OfflineGestureAnalyzer.compressSegments(List.of(
+                raw(0, 5, "IV"), raw(5, 30, "NONE"), raw(30, 37, "V"), raw(37, 40, "NONE")), FPS);
+
+        assertTimeline(timeline, seg(1.0, 1.233, "V"));
+    }
+
+    @Test
+    void stitchJoinsSameDegreeAcrossRangeBoundary() {
+        List<OfflineGestureAnalyzer.RawSegment> stitched = OfflineGestureAnalyzer.stitch(List.of(
+                List.of(raw(0, 10, "I"), raw(10, 20, "II")),
+                List.of(raw(20, 30, "II"), raw(30, 40, "I")),
+                List.of(raw(40, 50, "IV"))));
+
+        assertEquals(4, stitched.size());
+        assertRaw(stitched.get(0), 0, 10, "I");
+        assertRaw(stitched.get(1), 10, 30, "II");
+        assertRaw(stitched.get(2), 30, 40, "I");
+        assertRaw(stitched.get(3), 40, 50, "IV");
+    }
+
+    @Test
+    void findChangeLocatesFirstDifferingFrame() {
+        // Each frame carries its degree index as the pixel value.
+        String[] degrees = {"I", "II"};
+        for (int i = 0; i < 9; i++) {
+            frames.add(new Mat(1, 1, CvType.CV_8UC1, new Scalar(i < 6 ? 0 : 1)));
+        }
+        AtomicInteger calls = new AtomicInteger();
+        GestureClassifier classifier = frame -> {
+            calls.incrementAndGet();
+            return degrees[(int) frame.get(0, 0)[0]];
+        };
+
+        assertEquals(106, OfflineGestureAnalyzer.findChange(classifier, frames, 100, "I", 109));
+        assertTrue(calls.get() <= 4, "bisection classified " + calls.get() + " frames");
+    }
+
+    @Test
+    void findChangeFallsBackToSampledFrameWhenPendingFramesAllMatch() {
+        for (int i = 0; i < 4; i++) {
+            frames.add(new Mat(1, 1, CvType.CV_8UC1, new Scalar(0)));
+        }
+        GestureClassifier classifier = frame -> "I";
+
+        assertEquals(104, OfflineGestureAnalyzer.findChange(classifier, frames, 100, "I", 104));
+    }
+
+    private static OfflineGestureAnalyzer.RawSegment raw(int startFrame, int endFrame, String degree) {
+        return new OfflineGestureAnalyzer.RawSegment(startFrame, endFrame, degree);
+    }
+
+    private static TimelineSegment seg(double start, double end, String degree) {
+        return new TimelineSegment(start, end, degree);
+    }
+
+    private static void assertRaw(OfflineGestureAnalyzer.RawSegment actual, int startFrame, int endFrame,
+                                  String degree) {
+        assertEquals(startFrame, actual.startFrame);
+        assertEquals(endFrame, actual.endFrame);
+        assertEquals(degree, actual.degree);
+    }
+
+    private static void assertTimeline(List<TimelineSegment> actual, TimelineSegment... expected) {
+        assertEquals(expected.length, actual.size(), "segment count");
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i].degree, actual.get(i).degree, "degree " + i);
+            assertEquals(expected[i].start, actual.get(i).start, 1e-9, "start " + i);
+            assertEquals(expected[i].end, actual.get(i).end, 1e-9, "end " + i);
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.harmony.gestureharmonytoolui;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OverviewBuilderTest {
+
+    private static final int SAMPLE_RATE = 8000;
+
+    @TempDir
+    Path session;
+
+    @Test
+    void carriesSampleSplitAcrossCalls() {
+        short[] samples = randomSamples(3 * OverviewBuilder.BASE_BLOCK + 11);
+        byte[] pcm = pcm16(samples);
+
+        OverviewBuilder whole = new OverviewBuilder(SAMPLE_RATE);
+        whole.addPcm16(pcm, 0, pcm.length);
+
+        // Odd-sized pieces leave half a sample at the end of every other call.
+        OverviewBuilder split = new OverviewBuilder(SAMPLE_RATE);
+        Random sizes = new Random(32);
+        for (int offset = 0; offset < pcm.length; ) {
+            int length = Math.min(pcm.length - offset, 1 + 2 * sizes.nextInt(40));
+            split.addPcm16(pcm, offset, length);
+            offset += length;
+        }
+
+        OverviewBuilder direct = new OverviewBuilder(SAMPLE_RATE);
+        for (short sample : samples) {
+            direct.addSample(sample);
+        }
+
+        SessionOverview expected = direct.finish();
+        assertSameOverview(expected, whole.finish());
+        assertSameOverview(expected, split.finish());
+    }
+
+    @Test
+    void finishFlushesPartialBlocksOnEveryLevel() {
+        int count = OverviewBuilder.BASE_BLOCK * OverviewBuilder.FACTOR + 3;
+        OverviewBuilder builder = new OverviewBuilder(SAMPLE_RATE);
+        for (int i = 0; i < count; i++) {
+            // Only the three samples in the partial tail block reach the extremes.
+            short sample = i < count - 3 ? (short) (i % 200 - 100) : (short) (i == count - 1 ? 30_000 : -30_000);
+            builder.addSample(sample);
+        }
+
+        SessionOverview overview = builder.finish();
+        assertEquals(count, overview.getTotalSamples());
+        for (int level = 0; level < OverviewBuilder.LEVELS; level++) {
+            long blockSamples = overview.getBlockSamples(level);
+            int expectedBlocks = (int) ((count + blockSamples - 1) / blockSamples);
+            short[] mins = overview.getMins(level);
+            short[] maxs = overview.getMaxs(level);
+
+            assertEquals(expectedBlocks, mins.length, "blocks on level " + level);
+            assertEquals(expectedBlocks, maxs.length, "blocks on level " + level);
+            assertEquals(-30_000, mins[mins.length - 1], "tail min on level " + level);
+            assertEquals(30_000, maxs[maxs.length - 1], "tail max on level " + level);
+        }
+    }
+
+    @Test
+    void saveAndLoadKeepPeaksPitchAndTimeline() throws IOException {
+        OverviewBuilder builder = new OverviewBuilder(SAMPLE_RATE);
+        for (short sample : randomSamples(SAMPLE_RATE)) {
+            builder.addSample(sample);
+        }
+        SessionOverview original = builder.finish();
+
+        SessionManager.writeTimeline(session.toString(), List.of(
+                new TimelineSegment(0.5, 0.9, "IV"), new TimelineSegment(0.0, 0.4, "I")));
+        // Two pyin frames per 0.05 s bucket: an average, a half-voiced bucket and an unvoiced one.
+        StringBuilder midi = new StringBuilder("62.0, 64.0, null, 67.0, null, null");
+        for (int i = 6; i < 40; i++) {
+            midi.append(", 60.0");
+        }
+        Files.writeString(session.resolve("pitch.json"),
+                "{\"hop_seconds\": 0.025, \"midi\": [" + midi + "]}");
+
+        original.attachAnalysis(session.toString());
+        original.save(session.toString());
+        SessionOverview loaded = SessionOverview.load(session.toString());
+
+        assertSameOverview(original, loaded);
+
+        float[] pitch = loaded.getPitchMidi();
+        assertEquals(20, pitch.length);
+        assertEquals(63.0f, pitch[0]);
+        assertEquals(67.0f, pitch[1]);
+        assertTrue(Float.isNaN(pitch[2]));
+        assertEquals(60.0f, pitch[19]);
+        assertArrayEquals(original.getPitchMidi(), pitch);
+
+        List<TimelineSegment> timeline = loaded.getTimeline();
+        assertEquals(2, timeline.size());
+        assertEquals("I", timeline.get(0).degree);
+        assertEquals(0.0, timeline.get(0).start);
+        assertEquals(0.4, timeline.get(0).end);
+        assertEquals("IV", timeline.get(1).degree);
+        assertEquals(0.5, timeline.get(1).start);
+        assertEquals(0.9, timeline.get(1).end);
+    }
+
+    @Test
+    void buildFromWavMatchesStreamingBuild() throws IOException {
+        short[] samples = randomSamples(5 * OverviewBuilder.BASE_BLOCK * OverviewBuilder.FACTOR + 123);
+        byte[] pcm = pcm16(samples);
+
+        Path wav = session.resolve("output.wav");
+        OverviewBuilder streaming = new OverviewBuilder(SAMPLE_RATE);
+        try (WavWriter.PcmStream out = new WavWriter.PcmStream(wav, 1, SAMPLE_RATE)) {
+            // ffmpeg pipe reads need not end on a sample boundary.
+            for (int offset = 0; offset < pcm.length; offset += 4095) {
+                int length = Math.min(4095, pcm.length - offset);
+                out.write(pcm, offset, length);
+                streaming.addPcm16(pcm, offset, length);
+            }
+        }
+
+        SessionOverview fromWav = SessionOverview.buildFromWav(wav);
+
+        assertEquals(SAMPLE_RATE, fromWav.getSampleRate());
+        assertSameOverview(streaming.finish(), fromWav);
+    }
+
+    @Test
+    void picksCoarsestLevelNoWiderThanAPixel() {
+        SessionOverview overview = new OverviewBuilder(SAMPLE_RATE).finish();
+        long base = OverviewBuilder.BASE_BLOCK;
+        long factor = OverviewBuilder.FACTOR;
+
+        assertEquals(0, overview.levelForSamplesPerPixel(1));
+        assertEquals(0, overview.levelForSamplesPerPixel(base));
+        assertEquals(0, overview.levelForSamplesPerPixel(base * factor - 1));
+        assertEquals(1, overview.levelForSamplesPerPixel(base * factor));
+        assertEquals(2, overview.levelForSamplesPerPixel(base * factor * factor + 1));
+        assertEquals(OverviewBuilder.LEVELS - 1,
+                overview.levelForSamplesPerPixel(overview.getBlockSamples(OverviewBuilder.LEVELS - 1)));
+        assertEquals(OverviewBuilder.LEVELS - 1, overview.levelForSamplesPerPixel(1e12));
+    }
+
+    private static void assertSameOverview(SessionOverview expected, SessionOverview actual) {
+        assertEquals(expected.getSampleRate(), actual.getSampleRate());
+        assertEquals(expected.getTotalSamples(), actual.getTotalSamples());
+        for (int level = 0; level < OverviewBuilder.LEVELS; level++) {
+            assertEquals(expected.getBlockSamples(level), actual.getBlockSamples(level));
+            assertArrayEquals(expected.getMins(level), actual.getMins(level), "mins on level " + level);
+            assertArrayEquals(expected.getMaxs(level), actual.getMaxs(level), "maxs on level " + level);
+        }
+    }
+
+    private static short[] randomSamples(int count) {
+        Random random = new Random(count);
+        short[] samples = new short[count];
+        for (int i = 0; i < count; i++) {
+            samples[i] = (short) (random.nextInt(65536) - 32768);
+        }
+        return samples;
+    }
+
+    private static byte[] pcm16(short[] samples) {
+        byte[] pcm = new byte[samples.length * 2];
+        for (int i = 0; i < samples.length; i++) {
+            pcm[2 * i] = (byte) samples[i];
+            pcm[2 * i + 1] = (byte) (samples[i] >> 8);
+        }
+        return pcm;
+    }
+}
@@ -0,0 +1,244 @@
+package com.harmony.gestureharmonytoolui;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Dispatcher and workers on localhost, with FakeTool standing in for harmonize_audio.py.
+class RenderLoopbackTest {
+
+    private static final String TOKEN = "booth-secret";
+
+    @TempDir
+    Path session;
+
+    @TempDir
+    Path scratch;
+
+    private final List<RenderWorker> workers = new ArrayList<>();
+    private final List<String> progress = new ArrayList<>();
+    private List<String> previousPython;
+
+    @BeforeEach
+    void createSession() throws IOException {
+        previousPython = ToolCommands.python();
+        ToolCommands.overridePython(FakeTool.command("python"));
+        Files.writeString(session.resolve("config.json"), "{\n  \"key\": \"C\"\n}");
+        Files.writeString(session.resolve("timeline.json"), "[]");
+        Files.write(session.resolve("output.wav"), new byte[44 + 2 * 4410]);
+    }
+
+    @AfterEach
+    void stopWorkers() throws IOException {
+        for (RenderWorker worker : workers) {
+            worker.close();
+        }
+        ToolCommands.overridePython(previousPython);
+    }
+
+    @Test
+    void skipsDeadWorkerAndRendersOnLiveOne() throws Exception {
+        RenderDispatcher dispatcher = new RenderDispatcher(TOKEN);
+        dispatcher.register(new InetSocketAddress(InetAddress.getLoopbackAddress(), deadPort()));
+        dispatcher.register(new InetSocketAddress(InetAddress.getLoopbackAddress(), startWorker(TOKEN)));
+
+        assertTrue(dispatcher.harmonize(session.toString(), progress::add));
+
+        assertTrue(lastProgress().contains(" on "), "rendered locally: " + progress);
+        assertTrue(Files.size(session.resolve(RenderProtocol.RESULT_FILE)) > 44);
+        assertTrue(Files.exists(session.resolve("pitch.json")));
+    }
+
+    @Test
+    void fallsBackLocallyWhenTokenIsRejected() throws Exception {
+        RenderDispatcher dispatcher = new RenderDispatcher("wrong");
+        dispatcher.register(new InetSocketAddress(InetAddress.getLoopbackAddress(), startWorker(TOKEN)));
+
+        assertTrue(dispatcher.harmonize(session.toString(), progress::add));
+
+        assertEquals("Composing harmonized output...", lastProgress());
+    }
+
+    @Test
+    void refusesLargeBundleBeforeUploadAndStaysUsable() throws Exception {
+        // Larger than the loopback socket buffers, so a worker that stopped reading would stall the upload.
+        Files.write(session.resolve("output.wav"), new byte[44 + 16 * 1024 * 1024]);
+        int port = startWorker(TOKEN);
+
+        RenderDispatcher rejected = new RenderDispatcher("wrong");
+        rejected.register(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+        assertTrue(rejected.harmonize(session.toString(), progress::add));
+        assertEquals("Composing harmonized output...", lastProgress());
+
+        Files.delete(session.resolve(RenderProtocol.RESULT_FILE));
+        RenderDispatcher accepted = new RenderDispatcher(TOKEN);
+        accepted.register(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+        assertTrue(accepted.harmonize(session.toString(), progress::add));
+        assertTrue(lastProgress().contains(" on "), "rendered locally: " + progress);
+    }
+
+    @Test
+    void repliesToHandshakeBeforeBundle() throws Exception {
+        int port = startWorker(TOKEN);
+
+        try (Socket socket = handshake(port, "wrong")) {
+            DataInputStream in = new DataInputStream(socket.getInputStream());
+            assertEquals(RenderProtocol.MSG_ERROR, in.readByte());
+            assertEquals("Unauthorized", in.readUTF());
+            assertEquals(-1, in.read());
+        }
+        try (Socket socket = handshake(port, TOKEN)) {
+            assertEquals(RenderProtocol.MSG_ACCEPT, new DataInputStream(socket.getInputStream()).readByte());
+        }
+    }
+
+    @Test
+    void fallsBackLocallyWhenNoWorkerIsReachable() throws Exception {
+        RenderDispatcher dispatcher = new RenderDispatcher(TOKEN);
+        dispatcher.register(new InetSocketAddress(InetAddress.getLoopbackAddress(), deadPort()));
+
+        assertTrue(dispatcher.harmonize(session.toString(), progress::add));
+
+        assertEquals("Composing harmonized output...", lastProgress());
+    }
+
+    @Test
+    void transfersFileIntact() throws IOException {
+        byte[] payload = payload(RenderProtocol.CHUNK_SIZE * 2 + 17);
+        Path received = RenderProtocol.receiveFile(transfer(payload), scratch, RenderProtocol.BUNDLE_FILES);
+
+        assertArrayEquals(payload, Files.readAllBytes(received));
+    }
+
+    @Test
+    void rejectsCorruptedChunk() throws IOException {
+        byte[] wire = encode(payload(RenderProtocol.CHUNK_SIZE + 5));
+        // First data byte sits after the name, the size and the first chunk length.
+        wire[2 + "output.wav".length() + 8 + 4] ^= 0x01;
+
+        IOException e = assertThrows(IOException.class, () ->
+                RenderProtocol.receiveFile(new DataInputStream(new ByteArrayInputStream(wire)), scratch,
+                        RenderProtocol.BUNDLE_FILES));
+        assertTrue(e.getMessage().contains("Checksum"), e.getMessage());
+        assertNoFilesLeft();
+    }
+
+    @Test
+    void rejectsTruncatedTransfer() throws IOException {
+        byte[] wire = encode(payload(RenderProtocol.CHUNK_SIZE + 5));
+        byte[] cut = Arrays.copyOf(wire, wire.length - 40);
+
+        assertThrows(IOException.class, () ->
+                RenderProtocol.receiveFile(new DataInputStream(new ByteArrayInputStream(cut)), scratch,
+                        RenderProtocol.BUNDLE_FILES));
+        assertNoFilesLeft();
+    }
+
+    @Test
+    void rejectsOversizedDeclaration() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeUTF("output.wav");
+        out.writeLong(RenderProtocol.MAX_FILE_BYTES + 1);
+        out.writeInt(0);
+
+        assertThrows(IOException.class, () ->
+                RenderProtocol.receiveFile(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())), scratch,
+                        RenderProtocol.BUNDLE_FILES));
+        assertNoFilesLeft();
+    }
+
+    private int startWorker(String token) throws InterruptedException {
+        RenderWorker worker = new RenderWorker(0, InetAddress.getLoopbackAddress(), 1, token);
+        workers.add(worker);
+        Thread thread = new Thread(() -> {
+            try {
+                worker.serve();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }, "render-worker-test");
+        thread.setDaemon(true);
+        thread.start();
+
+        for (int i = 0; i < 500 && worker.getLocalPort() == 0; i++) {
+            Thread.sleep(10);
+        }
+        assertTrue(worker.getLocalPort() != 0, "worker did not start");
+        return worker.getLocalPort();
+    }
+
+    // Sends only the handshake, leaving the bundle unsent so the reply must come first.
+    private static Socket handshake(int port, String token) throws IOException {
+        Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+        socket.setSoTimeout(5_000);
+        DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+        out.writeInt(RenderProtocol.MAGIC);
+        out.writeInt(RenderProtocol.VERSION);
+        out.writeUTF(token);
+        out.writeInt(RenderProtocol.BUNDLE_FILES.size());
+        out.flush();
+        return socket;
+    }
+
+    private static int deadPort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private String lastProgress() {
+        return progress.isEmpty() ? "" : progress.get(progress.size() - 1);
+    }
+
+    private byte[] encode(byte[] payload) throws IOException {
+        Path file = Files.write(Files.createDirectories(scratch.resolve("source")).resolve("output.wav"), payload);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        RenderProtocol.sendFile(out, file);
+        out.flush();
+        Files.delete(file);
+        Files.delete(file.getParent());
+        return bytes.toByteArray();
+    }
+
+    private DataInputStream transfer(byte[] payload) throws IOException {
+        return new DataInputStream(new ByteArrayInputStream(encode(payload)));
+    }
+
+    private static byte[] payload(int length) {
+        byte[] payload = new byte[length];
+        for (int i = 0; i < length; i++) {
+            payload[i] = (byte) (i * 31 + 7);
+        }
+        return payload;
+    }
+
+    private void assertNoFilesLeft() throws IOException {
+        try (var files = Files.list(scratch)) {
+            assertFalse(files.findAny().isPresent());
+        }
+    }
+}
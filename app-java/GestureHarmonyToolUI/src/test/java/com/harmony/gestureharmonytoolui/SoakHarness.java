@@ -0,0 +1,303 @@
+package com.harmony.gestureharmonytoolui;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/*
+ * Headless soak run of the capture -> record -> post-process flow.
+ *
+ * Runs --units capture units on one CaptureScheduler, each fed by a synthetic or file-backed FrameSource,
+ * periodically records and post-processes a session per unit (ffmpeg/python replaced by FakeTool unless
+ * --fake-tools=false), and exits non-zero when latency, dropped frames, heap or thread growth cross their thresholds.
+ *
+ *   java -Djava.awt.headless=true -cp ... com.harmony.gestureharmonytoolui.SoakHarness --duration=3600
+ */
+public class SoakHarness {
+
+    private static final long SAMPLE_INTERVAL_MS = 10_000;
+
+    public static void main(String[] args) throws Exception {
+        System.setProperty("java.awt.headless", "true");
+        Map<String, String> options = parseOptions(args);
+
+        long durationSeconds = Long.parseLong(options.getOrDefault("duration", "3600"));
+        long warmupSeconds = Long.parseLong(options.getOrDefault("warmup", String.valueOf(Math.min(30, durationSeconds / 10))));
+        long cycleSeconds = Long.parseLong(options.getOrDefault("cycle", "120"));
+        long recordSeconds = Long.parseLong(options.getOrDefault("record", "10"));
+        double fps = Double.parseDouble(options.getOrDefault("fps", "30"));
+        String source = options.getOrDefault("source", "synthetic");
+        int unitCount = Integer.parseInt(options.getOrDefault("units", "1"));
+        boolean fakeTools = !"false".equals(options.get("fake-tools"));
+
+        double maxP99Ms = Double.parseDouble(options.getOrDefault("max-p99-ms", "100"));
+        double maxDroppedPct = Double.parseDouble(options.getOrDefault("max-dropped-pct", "1.0"));
+        double maxHeapGrowthMb = Double.parseDouble(options.getOrDefault("max-heap-growth-mb", "64"));
+        int maxThreadGrowth = Integer.parseInt(options.getOrDefault("max-thread-growth", "8"));
+
+        if (!OpenCvLoader.load()) {
+            System.out.println("[soak] OpenCV native library failed to load.");
+            System.exit(2);
+        }
+
+        if (fakeTools) {
+            String[] fakeOptions = {
+                    "-Dharmony.fake.delayMs=" + options.getOrDefault("fake-delay-ms", "200"),
+                    // The camera usually starts after the microphone, so the export offset path is exercised.
+                    "-Dharmony.fake.startTimes=v:0=0.350,a:0=0.120"
+            };
+            ToolCommands.overrideFfmpeg(FakeTool.command("ffmpeg", fakeOptions));
+            ToolCommands.overrideFfprobe(FakeTool.command("ffprobe", fakeOptions));
+            ToolCommands.overridePython(FakeTool.command("python", fakeOptions));
+        }
+
+        Path workDir = Files.createTempDirectory("harmony-soak");
+        CaptureScheduler scheduler = new CaptureScheduler(unitCount, unitCount);
+        List<CaptureUnit> units = new ArrayList<>();
+        for (int i = 0; i < unitCount; i++) {
+            FrameSource frameSource = source.equals("synthetic")
+                    ? new SyntheticFrameSource(1280, 720, fps)
+                    : new FileFrameSource(source);
+            CaptureUnit unit = scheduler.addUnit("unit-" + (i + 1), frameSource, "@fake_video_" + i, "@fake_audio_" + i);
+            if (!unit.startPreview()) {
+                System.out.println("[soak] Unable to open frame source: " + source);
+                System.exit(2);
+            }
+            units.add(unit);
+        }
+
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        ExecutorService cycleExecutor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "soak-session-cycle");
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger completedCycles = new AtomicInteger();
+        AtomicInteger failedCycles = new AtomicInteger();
+
+        System.out.println("[soak] Warming up for " + warmupSeconds + "s...");
+        Thread.sleep(TimeUnit.SECONDS.toMillis(warmupSeconds));
+        units.forEach(unit -> unit.getCaptureLoop().getStats().reset());
+        long droppedAtStart = droppedFrames(units);
+        double heapAtStartMb = usedHeapAfterGcMb(memory);
+        int threadsAtStart = threads.getThreadCount();
+        int peakThreads = threadsAtStart;
+        int threadsAfterFirstCycle = -1;
+
+        long startMs = System.currentTimeMillis();
+        long deadlineMs = startMs + TimeUnit.SECONDS.toMillis(durationSeconds);
+        long nextCycleMs = startMs;
+        long nextSampleMs = startMs + SAMPLE_INTERVAL_MS;
+        Future<?> runningCycle = null;
+
+        while (System.currentTimeMillis() < deadlineMs) {
+            long now = System.currentTimeMillis();
+
+            // Pipeline pools and process reapers start lazily; measure thread growth from after the first cycle.
+            if (threadsAfterFirstCycle < 0 && runningCycle != null && runningCycle.isDone()) {
+                threadsAfterFirstCycle = threads.getThreadCount();
+            }
+
+            if (now >= nextCycleMs && (runningCycle == null || runningCycle.isDone())) {
+                runningCycle = cycleExecutor.submit(() ->
+                        runSessionCycle(scheduler, workDir, recordSeconds, completedCycles, failedCycles));
+                nextCycleMs = now + TimeUnit.SECONDS.toMillis(cycleSeconds);
+            }
+
+            if (now >= nextSampleMs) {
+                peakThreads = Math.max(peakThreads, threads.getThreadCount());
+                FrameStats stats = mergedStats(units);
+                System.out.printf("[soak] t=%ds frames=%d p50=%.1fms p99=%.1fms dropped=%d heap=%.1fMB threads=%d%n",
+                        (now - startMs) / 1000, stats.getFrames(), stats.percentileMillis(50), stats.percentileMillis(99),
+                        droppedFrames(units) - droppedAtStart,
+                        memory.getHeapMemoryUsage().getUsed() / (1024.0 * 1024.0), threads.getThreadCount());
+                units.forEach(unit -> System.out.println("[soak]   " + unit.describe()));
+                nextSampleMs = now + SAMPLE_INTERVAL_MS;
+            }
+
+            Thread.sleep(250);
+        }
+
+        if (runningCycle != null) {
+            runningCycle.get();
+        }
+
+        // Take the end-of-run footprint while the capture loop is still live so it is comparable to the baseline.
+        double heapAtEndMb = usedHeapAfterGcMb(memory);
+        int threadsAtEnd = threads.getThreadCount();
+        int threadBaseline = threadsAfterFirstCycle >= 0 ? threadsAfterFirstCycle : threadsAtStart;
+        FrameStats stats = mergedStats(units);
+        long frames = stats.getFrames();
+        long dropped = droppedFrames(units) - droppedAtStart;
+        double droppedPct = frames + dropped == 0 ? 100.0 : dropped * 100.0 / (frames + dropped);
+        double p50 = stats.percentileMillis(50);
+        double p95 = stats.percentileMillis(95);
+        double p99 = stats.percentileMillis(99);
+
+        scheduler.shutdown();
+        cycleExecutor.shutdownNow();
+        deleteRecursively(workDir);
+
+        System.out.println("[soak] ---- report ----");
+        System.out.printf("[soak] units=%d frames=%d dropped=%d (%.3f%%)%n", unitCount, frames, dropped, droppedPct);
+        System.out.printf("[soak] latency p50=%.1fms p95=%.1fms p99=%.1fms max=%.1fms%n",
+                p50, p95, p99, stats.getMaxLatencyMillis());
+        System.out.printf("[soak] heap %.1fMB -> %.1fMB%n", heapAtStartMb, heapAtEndMb);
+        System.out.printf("[soak] threads %d -> %d (peak %d)%n", threadBaseline, threadsAtEnd, peakThreads);
+        System.out.printf("[soak] session cycles ok=%d failed=%d%n", completedCycles.get(), failedCycles.get());
+
+        List<String> failures = new ArrayList<>();
+        if (frames == 0) {
+            failures.add("no frames were captured");
+        }
+        if (p99 > maxP99Ms) {
+            failures.add(String.format("p99 latency %.1fms > %.1fms", p99, maxP99Ms));
+        }
+        if (droppedPct > maxDroppedPct) {
+            failures.add(String.format("dropped frames %.3f%% > %.3f%%", droppedPct, maxDroppedPct));
+        }
+        if (heapAtEndMb - heapAtStartMb > maxHeapGrowthMb) {
+            failures.add(String.format("heap grew %.1fMB > %.1fMB", heapAtEndMb - heapAtStartMb, maxHeapGrowthMb));
+        }
+        if (threadsAtEnd - threadBaseline > maxThreadGrowth) {
+            failures.add(String.format("thread count grew by %d > %d", threadsAtEnd - threadBaseline, maxThreadGrowth));
+        }
+        if (failedCycles.get() > 0) {
+            failures.add(failedCycles.get() + " session cycle(s) failed");
+        }
+
+        if (failures.isEmpty()) {
+            System.out.println("[soak] PASS");
+            System.exit(0);
+        }
+        failures.forEach(failure -> System.out.println("[soak] FAIL: " + failure));
+        System.exit(1);
+    }
+
+    // Records every unit at once, then post-processes each session on the scheduler's shared workers.
+    private static void runSessionCycle(CaptureScheduler scheduler, Path workDir, long recordSeconds,
+                                        AtomicInteger completedCycles, AtomicInteger failedCycles) {
+        List<CaptureUnit> recording = new ArrayList<>();
+        try {
+            for (CaptureUnit unit : scheduler.getUnits()) {
+                unit.setSessionPath(SessionManager.createNewSession(workDir.toString()));
+                unit.startRecording();
+                recording.add(unit);
+            }
+            Thread.sleep(TimeUnit.SECONDS.toMillis(recordSeconds));
+
+            List<Future<?>> pipelines = new ArrayList<>();
+            for (CaptureUnit unit : recording) {
+                Path sessionDir = Path.of(unit.getSessionPath());
+                if (!unit.stopRecording()) {
+                    System.out.println("[soak] Recording stop timed out in " + sessionDir);
+                    failedCycles.incrementAndGet();
+                    continue;
+                }
+
+                pipelines.add(scheduler.submitPostProcessing(() -> {
+                    try {
+                        new PostProcessingPipeline().run(sessionDir.toString(),
+                                message -> System.out.println("[soak] " + message));
+
+                        if (Files.exists(sessionDir.resolve("harmonized_enhanced.wav"))
+                                && Files.exists(sessionDir.resolve("harmonized_video.mp4"))
+                                && Files.exists(sessionDir.resolve(SessionOverview.FILE_NAME))) {
+                            completedCycles.incrementAndGet();
+                        } else {
+                            System.out.println("[soak] No harmonized output in " + sessionDir);
+                            failedCycles.incrementAndGet();
+                        }
+                    } finally {
+                        deleteRecursively(sessionDir);
+                    }
+                }));
+            }
+            recording.clear();
+
+            for (Future<?> pipeline : pipelines) {
+                pipeline.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            e.printStackTrace();
+            failedCycles.incrementAndGet();
+        } finally {
+            for (CaptureUnit unit : recording) {
+                try {
+                    unit.stopRecording();
+                } catch (Exception ignored) {}
+            }
+        }
+    }
+
+    private static FrameStats mergedStats(List<CaptureUnit> units) {
+        FrameStats merged = new FrameStats();
+        units.forEach(unit -> merged.merge(unit.getCaptureLoop().getStats()));
+        return merged;
+    }
+
+    private static long droppedFrames(List<CaptureUnit> units) {
+        long dropped = 0;
+        for (CaptureUnit unit : units) {
+            dropped += unit.getCaptureLoop().getDroppedFrames();
+        }
+        return dropped;
+    }
+
+
+    private static double usedHeapAfterGcMb(MemoryMXBean memory) throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return memory.getHeapMemoryUsage().getUsed() / (1024.0 * 1024.0);
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                continue;
+            }
+            int eq = arg.indexOf('=');
+            if (eq < 0) {
+                options.put(arg.substring(2), "true");
+            } else {
+                options.put(arg.substring(2, eq), arg.substring(eq + 1));
+            }
+        }
+        return options;
+    }
+
+    private static void deleteRecursively(Path path) {
+        if (!Files.exists(path)) {
+            return;
+        }
+        try (Stream<Path> walk = Files.walk(path)) {
+            walk.sorted(Comparator.reverseOrder()).forEach(p -> {
+                try {
+                    Files.deleteIfExists(p);
+                } catch (IOException ignored) {}
+            });
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
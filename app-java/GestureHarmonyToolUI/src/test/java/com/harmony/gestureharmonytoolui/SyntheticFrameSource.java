@@ -0,0 +1,93 @@
+package com.harmony.gestureharmonytoolui;
+
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.Point;
+import org.opencv.core.Scalar;
+import org.opencv.imgproc.Imgproc;
+
+import java.util.concurrent.locks.LockSupport;
+
+public class SyntheticFrameSource implements FrameSource {
+
+    private final int width;
+    private final int height;
+    private final long frameIntervalNanos;
+    private volatile boolean opened;
+    private long startNanos;
+    private long nextFrameIndex;
+    private volatile long droppedFrames;
+    private volatile long lastFrameNanos;
+
+    public SyntheticFrameSource(int width, int height, double fps) {
+        this.width = width;
+        this.height = height;
+        this.frameIntervalNanos = (long) (1_000_000_000L / fps);
+    }
+
+    @Override
+    public boolean open() {
+        startNanos = System.nanoTime();
+        nextFrameIndex = 0;
+        droppedFrames = 0;
+        opened = true;
+        return true;
+    }
+
+    @Override
+    public boolean isOpened() {
+        return opened;
+    }
+
+    @Override
+    public boolean read(Mat frame) {
+        if (!opened) {
+            return false;
+        }
+
+        // Frames are produced on a fixed clock like a real sensor; if the consumer falls behind,
+        // the missed frames are counted as dropped instead of being queued up.
+        long due = startNanos + nextFrameIndex * frameIntervalNanos;
+        long now = System.nanoTime();
+        if (now < due) {
+            LockSupport.parkNanos(due - now);
+        } else {
+            long behind = (now - due) / frameIntervalNanos;
+            droppedFrames += behind;
+            nextFrameIndex += behind;
+            due += behind * frameIntervalNanos;
+        }
+
+        renderFrame(frame, nextFrameIndex);
+        nextFrameIndex++;
+        lastFrameNanos = due;
+        return true;
+    }
+
+    private void renderFrame(Mat frame, long index) {
+        frame.create(height, width, CvType.CV_8UC3);
+        frame.setTo(new Scalar(23, 6 + index % 32, 2));
+
+        double phase = (index % 240) / 240.0 * 2 * Math.PI;
+        Point center = new Point(width / 2.0 + Math.cos(phase) * width / 4.0,
+                height / 2.0 + Math.sin(phase) * height / 4.0);
+        Imgproc.circle(frame, center, Math.max(8, height / 8), new Scalar(140, 180, 230), -1);
+        Imgproc.putText(frame, Long.toString(index), new Point(16, 32),
+                Imgproc.FONT_HERSHEY_SIMPLEX, 0.8, new Scalar(255, 255, 255), 2);
+    }
+
+    @Override
+    public long lastFrameNanos() {
+        return lastFrameNanos;
+    }
+
+    @Override
+    public long droppedFrames() {
+        return droppedFrames;
+    }
+
+    @Override
+    public void release() {
+        opened = false;
+    }
+}
@@ -165,6 +165,14 @@ def main():
     f0_hz, _, _ = librosa.pyin(y_dry, fmin=65, fmax=1046, sr=sr, hop_length=hop)
     f0_times = librosa.frames_to_time(np.arange(len(f0_hz)), sr=sr, hop_length=hop)
 
+    # Pitch contour for the session overview (null = unvoiced); the app downsamples it into overview.bin
+    pitch_path = os.path.join(session, "pitch.json")
+    with open(pitch_path, "w", encoding="utf-8") as f:
+        json.dump({
+            "hop_seconds": hop / sr,
+            "midi": [round(hz_to_midi(h), 2) if np.isfinite(h) else None for h in f0_hz],
+        }, f)
+
     # Stereo Output Buffers
     out_L = np.zeros_like(y_dry)
     out_R = np.zeros_like(y_dry)